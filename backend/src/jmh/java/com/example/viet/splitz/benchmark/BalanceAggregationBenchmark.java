@@ -0,0 +1,115 @@
+package com.example.viet.splitz.benchmark;
+
+import com.example.viet.splitz.expense.ShareCalculator;
+import com.example.viet.splitz.expense.SplitType;
+import com.example.viet.splitz.expense.dtos.AddExpenseDto;
+import com.example.viet.splitz.expense.dtos.SplitDto;
+import com.example.viet.splitz.settlement.DebtSimplifier;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.viet.splitz.ledger.LedgerEntry.minorUnits;
+
+/**
+ * Java mirror of the member_balance rebuild: a ledger_entry journal of
+ * synthetic expenses (split with ShareCalculator, as ExpenseServiceImpl does)
+ * and settlements is folded into the owed/paid/received/sent columns of
+ * MemberBalanceRepository.insertFromLedger, plus the settlement plan built
+ * from the result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BalanceAggregationBenchmark {
+    private static final int MAX_PARTICIPANTS = 8;
+
+    @Param({"5", "50", "500"})
+    int members;
+
+    @Param({"1000", "100000"})
+    int expenses;
+
+    // one row per journal leg, like ledger_entry: member, signed cents, source type
+    int[] legUser;
+    long[] legCents;
+    boolean[] legSettlement;
+    long[] net;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(11);
+        List<Integer> users = new ArrayList<>();
+        List<Long> cents = new ArrayList<>();
+        List<Boolean> settlement = new ArrayList<>();
+        for (int i = 0; i < expenses; i++) {
+            int payer = random.nextInt(members);
+            BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(50_000), 2);
+            List<SplitDto> splits = new ArrayList<>();
+            int first = random.nextInt(members);
+            for (int k = 0; k < Math.min(members, 1 + random.nextInt(MAX_PARTICIPANTS)); k++) {
+                splits.add(new SplitDto((long) ((first + k) % members), null));
+            }
+            List<Long> participants = splits.stream().map(SplitDto::userId).toList();
+            Map<Long, BigDecimal> shares = ShareCalculator.shares(
+                    new AddExpenseDto("expense", amount, (long) payer, null, 1L, SplitType.EQUAL, splits), participants);
+            users.add(payer);
+            cents.add(-minorUnits(amount));
+            settlement.add(false);
+            shares.forEach((userId, share) -> {
+                users.add(userId.intValue());
+                cents.add(minorUnits(share));
+                settlement.add(false);
+            });
+        }
+        for (int i = 0; i < expenses / 10; i++) {
+            long amount = 100 + random.nextInt(10_000);
+            users.add(random.nextInt(members));
+            cents.add(-amount);
+            settlement.add(true);
+            users.add(random.nextInt(members));
+            cents.add(amount);
+            settlement.add(true);
+        }
+        legUser = users.stream().mapToInt(Integer::intValue).toArray();
+        legCents = cents.stream().mapToLong(Long::longValue).toArray();
+        legSettlement = new boolean[settlement.size()];
+        for (int i = 0; i < legSettlement.length; i++) legSettlement[i] = settlement.get(i);
+        net = rebuild();
+    }
+
+    @Benchmark
+    public long[] rebuild() {
+        long[] owed = new long[members];
+        long[] paid = new long[members];
+        long[] received = new long[members];
+        long[] sent = new long[members];
+        for (int i = 0; i < legUser.length; i++) {
+            long amount = legCents[i];
+            int user = legUser[i];
+            if (legSettlement[i]) {
+                if (amount > 0) received[user] += amount; else sent[user] -= amount;
+            } else {
+                if (amount > 0) owed[user] += amount; else paid[user] -= amount;
+            }
+        }
+        long[] result = new long[members];
+        for (int m = 0; m < members; m++) {
+            result[m] = owed[m] - paid[m] + received[m] - sent[m];
+        }
+        return result;
+    }
+
+    @Benchmark
+    public DebtSimplifier.Plan simplify() {
+        return DebtSimplifier.simplify(net);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.viet.splitz.benchmark;
+
+import com.example.viet.splitz.util.FanOut;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dashboard latency with its three queries (feed, group list, balance)
+ * simulated as 1-5 ms blocking calls. SampleTime mode reports p50 and p99;
+ * run with -Djmh.include=DashboardFanOutBenchmark.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class DashboardFanOutBenchmark {
+    ExecutorService pool;
+    FanOut fanOut;
+
+    @Setup
+    public void setup() {
+        pool = Executors.newFixedThreadPool(32);
+        fanOut = new FanOut(pool, new NoTransactions(), Duration.ofSeconds(2));
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdownNow();
+    }
+
+    // before: branches one after another
+    @Benchmark
+    public int sequential() {
+        return query() + query() + query();
+    }
+
+    // after: branches on the pool, joined
+    @Benchmark
+    public int fanOut() {
+        CompletableFuture<Integer> feed = fanOut.fork(DashboardFanOutBenchmark::query);
+        CompletableFuture<Integer> groups = fanOut.fork(DashboardFanOutBenchmark::query);
+        CompletableFuture<Integer> balance = fanOut.fork(DashboardFanOutBenchmark::query);
+        return FanOut.join(feed) + FanOut.join(groups) + FanOut.join(balance);
+    }
+
+    private static int query() {
+        int micros = ThreadLocalRandom.current().nextInt(1_000, 5_000);
+        try {
+            TimeUnit.MICROSECONDS.sleep(micros);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return micros;
+    }
+
+    private static final class NoTransactions implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
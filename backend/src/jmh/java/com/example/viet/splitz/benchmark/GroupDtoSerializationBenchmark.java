@@ -0,0 +1,52 @@
+package com.example.viet.splitz.benchmark;
+
+import com.example.viet.splitz.expense.dtos.ExpenseResDto;
+import com.example.viet.splitz.group.dtos.GroupIdResDto;
+import com.example.viet.splitz.user.dtos.UserBalanceDto;
+import com.example.viet.splitz.user.dtos.UserResDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupDtoSerializationBenchmark {
+    @Param({"10", "1000", "10000"})
+    int expenses;
+
+    ObjectMapper objectMapper;
+    GroupIdResDto group;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        List<UserResDto> members = new ArrayList<>();
+        List<UserBalanceDto> balances = new ArrayList<>();
+        for (long i = 0; i < 8; i++) {
+            members.add(new UserResDto(i, "member " + i));
+            balances.add(new UserBalanceDto(i, "member " + i, BigDecimal.valueOf(i * 1234 - 4000, 2)));
+        }
+        List<ExpenseResDto> expenseList = new ArrayList<>(expenses);
+        LocalDate start = LocalDate.of(2022, 1, 1);
+        for (int i = 0; i < expenses; i++) {
+            expenseList.add(new ExpenseResDto((long) i, "expense " + i, BigDecimal.valueOf(1000 + i, 2),
+                    "member " + (i % 8), start.plusDays(i % 1000)));
+        }
+        group = new GroupIdResDto(1L, "trip", members, expenseList, balances, null);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(group);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.viet.splitz.benchmark;
+
+import com.example.viet.splitz.jwt.JwtService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private static final String SECRET = "03705944e0cc6b9d28d7b840beb0d5dd82f2a8228104d6b7a357c8d1c7eaae89";
+
+    JwtService jwtService;
+    String token;
+
+    @Setup
+    public void setup() {
+        jwtService = new JwtService(SECRET, 180, 10_000, new SimpleMeterRegistry());
+        token = jwtService.issueAccess(42L, "alice");
+    }
+
+    @Benchmark
+    public String issueAccess() {
+        return jwtService.issueAccess(42L, "alice");
+    }
+
+    // repeated token: served from the verified-token cache
+    @Benchmark
+    public Claims parse() {
+        return jwtService.parse(token);
+    }
+
+    // fresh token every call: full HMAC check and claims parsing
+    @Benchmark
+    public Claims issueAndParse() {
+        return jwtService.parse(jwtService.issueAccess(42L, "alice"));
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.viet.splitz.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop HTTP load test against a running server seeded by the "seed"
+ * profile. Each worker logs in as a random seed user and then issues a
+ * weighted mix of reads and expense writes back to back. Samples taken
+ * during warmup are dropped; the rest are reported per endpoint as
+ * throughput, error count and p50/p95/p99 latency.
+ *
+ * <p>System properties: {@code baseUrl}, {@code concurrency}, {@code duration},
+ * {@code warmup} (ISO-8601 or seconds), {@code users}, {@code userPrefix},
+ * {@code password}, {@code output}.
+ */
+public final class LoadTest {
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    // endpoint name and relative weight in the mix
+    private static final String[] MIX = {"login", "groups", "group", "dashboard", "activities", "expense"};
+    private static final int[] WEIGHTS = {2, 25, 25, 20, 18, 10};
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private final int users;
+    private final String userPrefix;
+    private final String password;
+
+    private LoadTest(String baseUrl, int users, String userPrefix, String password) {
+        this.baseUrl = baseUrl;
+        this.users = users;
+        this.userPrefix = userPrefix;
+        this.password = password;
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTest test = new LoadTest(System.getProperty("baseUrl", "http://localhost:8080"),
+                Integer.getInteger("users", 10000),
+                System.getProperty("userPrefix", "seed-user-"),
+                System.getProperty("password", "password"));
+        int concurrency = Integer.getInteger("concurrency", 32);
+        Duration warmup = duration(System.getProperty("warmup", "PT30S"));
+        Duration duration = duration(System.getProperty("duration", "PT2M"));
+        Path output = Path.of(System.getProperty("output", "target/loadtest-result.csv"));
+
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long stopAt = measureFrom + duration.toNanos();
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        List<Future<Map<String, Samples>>> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) workers.add(pool.submit(() -> test.worker(measureFrom, stopAt)));
+
+        Map<String, Samples> total = new LinkedHashMap<>();
+        for (String name : MIX) total.put(name, new Samples());
+        for (Future<Map<String, Samples>> worker : workers) worker.get().forEach((name, s) -> total.get(name).addAll(s));
+        pool.shutdown();
+        report(total, duration, concurrency, output);
+    }
+
+    private Map<String, Samples> worker(long measureFrom, long stopAt) throws Exception {
+        Map<String, Samples> samples = new HashMap<>();
+        for (String name : MIX) samples.put(name, new Samples());
+        Session session = null;
+        while (System.nanoTime() < stopAt) {
+            String name = session == null ? "login" : pick();
+            long started = System.nanoTime();
+            boolean ok;
+            try {
+                if (name.equals("login")) {
+                    Session fresh = login();
+                    ok = fresh != null;
+                    if (ok) session = fresh;
+                } else {
+                    ok = call(name, session);
+                }
+            } catch (IOException e) {
+                ok = false;
+            }
+            long elapsed = System.nanoTime() - started;
+            if (started >= measureFrom) samples.get(name).add(elapsed, ok);
+        }
+        return samples;
+    }
+
+    private Session login() throws IOException, InterruptedException {
+        String name = userPrefix + ThreadLocalRandom.current().nextInt(users);
+        String body = JSON.writeValueAsString(Map.of("name", name, "password", password));
+        HttpResponse<String> response = send(HttpRequest.newBuilder(uri("/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body)));
+        if (response.statusCode() != 200) return null;
+        String token = JSON.readTree(response.body()).path("accessToken").asText();
+        // the user id is the "uid" claim of the access token
+        JsonNode claims = JSON.readTree(Base64.getUrlDecoder().decode(token.split("\\.")[1]));
+        Session session = new Session(token, claims.path("uid").asLong());
+        HttpResponse<String> groups = send(authorized("/groups", session).GET());
+        if (groups.statusCode() == 200) {
+            for (JsonNode group : JSON.readTree(groups.body())) session.groupIds.add(group.path("id").asLong());
+        }
+        return session;
+    }
+
+    private boolean call(String name, Session session) throws IOException, InterruptedException {
+        Long groupId = session.groupIds.isEmpty() ? null
+                : session.groupIds.get(ThreadLocalRandom.current().nextInt(session.groupIds.size()));
+        HttpRequest.Builder request;
+        switch (name) {
+            case "groups" -> request = authorized("/groups", session).GET();
+            case "dashboard" -> request = authorized("/user/dashboard", session).GET();
+            case "activities" -> request = authorized("/activities", session).GET();
+            case "group" -> {
+                if (groupId == null) return true;
+                request = authorized("/groups/" + groupId, session).GET();
+            }
+            case "expense" -> {
+                if (groupId == null) return true;
+                Map<String, Object> expense = Map.of("description", "Load test", "amount", "12.50",
+                        "paidBy", session.userId, "date", LocalDate.now().toString(), "groupId", groupId);
+                request = authorized("/expenses", session)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(JSON.writeValueAsString(expense)));
+            }
+            default -> throw new IllegalArgumentException("Unknown endpoint " + name);
+        }
+        int status = send(request).statusCode();
+        return status >= 200 && status < 400;
+    }
+
+    private static String pick() {
+        int roll = ThreadLocalRandom.current().nextInt(Arrays.stream(WEIGHTS).sum());
+        for (int i = 0; i < WEIGHTS.length; i++) {
+            roll -= WEIGHTS[i];
+            if (roll < 0) return MIX[i];
+        }
+        return MIX[MIX.length - 1];
+    }
+
+    private HttpRequest.Builder authorized(String path, Session session) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + session.token);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private static void report(Map<String, Samples> total, Duration duration, int concurrency, Path output) throws IOException {
+        double seconds = duration.toMillis() / 1000.0;
+        String header = "endpoint,requests,errors,throughput_rps,p50_ms,p95_ms,p99_ms";
+        List<String> rows = new ArrayList<>();
+        System.out.printf("%n%d workers, %.0f s measured%n", concurrency, seconds);
+        System.out.printf("%-12s %9s %7s %10s %9s %9s %9s%n", "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms");
+        for (Map.Entry<String, Samples> entry : total.entrySet()) {
+            Samples s = entry.getValue();
+            long[] sorted = s.sorted();
+            double p50 = percentile(sorted, 0.50), p95 = percentile(sorted, 0.95), p99 = percentile(sorted, 0.99);
+            System.out.printf("%-12s %9d %7d %10.1f %9.2f %9.2f %9.2f%n", entry.getKey(), sorted.length, s.errors,
+                    sorted.length / seconds, p50, p95, p99);
+            rows.add(String.format("%s,%d,%d,%.1f,%.2f,%.2f,%.2f", entry.getKey(), sorted.length, s.errors,
+                    sorted.length / seconds, p50, p95, p99));
+        }
+        Files.createDirectories(output.toAbsolutePath().getParent());
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(output))) {
+            writer.println(header);
+            rows.forEach(writer::println);
+        }
+        System.out.println("Results written to " + output);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static Duration duration(String value) {
+        return value.startsWith("P") ? Duration.parse(value) : Duration.ofSeconds(Long.parseLong(value));
+    }
+
+    private static final class Session {
+        final String token;
+        final long userId;
+        final List<Long> groupIds = new ArrayList<>();
+
+        Session(String token, long userId) {
+            this.token = token;
+            this.userId = userId;
+        }
+    }
+
+    // latencies in nanoseconds; one instance per worker, merged at the end
+    private static final class Samples {
+        long[] latencies = new long[1024];
+        int size;
+        long errors;
+
+        void add(long nanos, boolean ok) {
+            if (!ok) errors++;
+            if (size == latencies.length) latencies = Arrays.copyOf(latencies, size * 2);
+            latencies[size++] = nanos;
+        }
+
+        void addAll(Samples other) {
+            for (int i = 0; i < other.size; i++) add(other.latencies[i], true);
+            errors += other.errors;
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(latencies, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
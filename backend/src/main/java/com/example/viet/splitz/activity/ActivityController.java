@@ -1,10 +1,12 @@
 package com.example.viet.splitz.activity;
 
 import com.example.viet.splitz.activity.dtos.ActivityDto;
+import com.example.viet.splitz.activity.dtos.ActivityPageDto;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -21,4 +23,11 @@ public class ActivityController {
     public List<ActivityDto> getActivities(Authentication authentication){
         return activityService.getActivities(authentication);
     }
+
+    @GetMapping("/feed")
+    public ActivityPageDto getFeed(Authentication authentication,
+                                   @RequestParam(required = false) String cursor,
+                                   @RequestParam(required = false) Integer limit){
+        return activityService.getFeed(authentication, cursor, limit);
+    }
 }
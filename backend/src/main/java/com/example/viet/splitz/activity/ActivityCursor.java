@@ -0,0 +1,58 @@
+package com.example.viet.splitz.activity;
+
+import com.example.viet.splitz.activity.dtos.ActivityDto;
+import com.example.viet.splitz.util.InvalidCursorException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position in the activity feed. The feed is ordered newest first by
+ * (date, type, id); on the same date settlements come before expenses.
+ * Serialized as {@code <date>,<type>,<id>}, e.g. {@code 2025-03-01,expense,412}.
+ */
+public record ActivityCursor(LocalDate date, String type, long id) {
+    static final String EXPENSE = "expense";
+    static final String SETTLEMENT = "settlement";
+    static final ActivityCursor START = new ActivityCursor(LocalDate.of(9999, 12, 31), SETTLEMENT, Long.MAX_VALUE);
+
+    public static ActivityCursor of(ActivityDto activity) {
+        String id = activity.id();
+        return new ActivityCursor(activity.date(), activity.type(), Long.parseLong(id.substring(id.indexOf(':') + 1)));
+    }
+
+    public static ActivityCursor parse(String value) {
+        String[] parts = value.split(",");
+        if (parts.length != 3 || !(EXPENSE.equals(parts[1]) || SETTLEMENT.equals(parts[1]))) {
+            throw new InvalidCursorException("Cursor must look like <date>,<expense|settlement>,<id>");
+        }
+        try {
+            return new ActivityCursor(LocalDate.parse(parts[0]), parts[1], Long.parseLong(parts[2]));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidCursorException("Cursor must look like <date>,<expense|settlement>,<id>", e);
+        }
+    }
+
+    /**
+     * Id bound for the keyset condition on one source type so that the feed
+     * query returns exactly the rows of that type which come after this cursor.
+     */
+    long idBoundFor(String sourceType) {
+        if (type.equals(sourceType)) return id;
+        // rows of a lower-ranked source on the same date have not been emitted yet
+        return rank(sourceType) < rank() ? Long.MAX_VALUE : 0L;
+    }
+
+    private int rank() {
+        return rank(type);
+    }
+
+    private static int rank(String type) {
+        return SETTLEMENT.equals(type) ? 1 : 0;
+    }
+
+    @Override
+    public String toString() {
+        return date + "," + type + "," + id;
+    }
+}
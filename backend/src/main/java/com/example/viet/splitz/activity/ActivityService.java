@@ -1,39 +1,47 @@
 package com.example.viet.splitz.activity;
 
 import com.example.viet.splitz.activity.dtos.ActivityDto;
-import com.example.viet.splitz.expense.ExpenseRepository;
-import com.example.viet.splitz.settlement.SettlementRepository;
-import com.example.viet.splitz.user.User;
-import com.example.viet.splitz.user.UserRepository;
+import com.example.viet.splitz.activity.dtos.ActivityPageDto;
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.ledger.LedgerEntryRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Stream;
 
 @Service
 public class ActivityService {
-    private final ExpenseRepository expenseRepository;
-    private final SettlementRepository settlementRepository;
-    private final UserRepository userRepository;
-
-    public ActivityService(ExpenseRepository expenseRepository, SettlementRepository settlementRepository, UserRepository userRepository) {
-        this.expenseRepository = expenseRepository;
-        this.settlementRepository = settlementRepository;
-        this.userRepository = userRepository;
+    static final int DEFAULT_PAGE_SIZE = 10;
+    static final int MAX_PAGE_SIZE = 100;
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final CurrentUser currentUser;
+
+    public ActivityService(LedgerEntryRepository ledgerEntryRepository, CurrentUser currentUser) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.currentUser = currentUser;
     }
 
     public List<ActivityDto> getActivities(Authentication authentication) {
-        User user = userRepository.findByName(authentication.getName()).orElseThrow();
-        List<ActivityDto> expenses = expenseRepository.findRecentExpenseActivitiesForUserGroups(user.getId());
-        List<ActivityDto> settlements = settlementRepository.findRecentSettlementActivitiesForUser(user.getId());
-        System.out.println(settlements);
-        List<ActivityDto> response = Stream.concat(expenses.stream(), settlements.stream())
-                .sorted(Comparator.comparing(ActivityDto::date))
-                .limit(10)
-                .toList();
-        System.out.println(response);
-        return response;
+        return getFeed(authentication, null, DEFAULT_PAGE_SIZE).items();
+    }
+
+    @Transactional(readOnly = true)
+    public ActivityPageDto getFeed(Authentication authentication, String cursor, Integer limit) {
+        return getFeed(currentUser.id(authentication), cursor, limit);
+    }
+
+    @Transactional(readOnly = true)
+    public ActivityPageDto getFeed(Long userId, String cursor, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        ActivityCursor after = cursor == null || cursor.isBlank() ? ActivityCursor.START : ActivityCursor.parse(cursor);
+        // one row more than the page tells whether there is a next one
+        List<ActivityDto> rows = ledgerEntryRepository.findActivitiesForUserBefore(userId, after.date(),
+                after.idBoundFor(ActivityCursor.EXPENSE), after.idBoundFor(ActivityCursor.SETTLEMENT), Limit.of(size + 1));
+        List<ActivityDto> items = rows.size() > size ? rows.subList(0, size) : rows;
+        String next = rows.size() > size ? ActivityCursor.of(items.get(items.size() - 1)).toString() : null;
+        return new ActivityPageDto(items, next);
     }
 }
@@ -0,0 +1,5 @@
+package com.example.viet.splitz.activity.dtos;
+
+import java.util.List;
+
+public record ActivityPageDto(List<ActivityDto> items, String next) {}
@@ -1,12 +1,17 @@
 package com.example.viet.splitz.auth;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/auth")
@@ -19,9 +24,11 @@ public class AuthController {
     public record UsernameDto(String username){}
 
     private final AuthService svc;
+    private final CurrentUser currentUser;
 
-    public AuthController(AuthService svc) {
+    public AuthController(AuthService svc, CurrentUser currentUser) {
         this.svc = svc;
+        this.currentUser = currentUser;
     }
 
     @PostMapping("/signup")
@@ -32,14 +39,26 @@ public class AuthController {
 
     @PutMapping("/me")
     public ResponseEntity<String> updateUserName(Authentication authentication, @RequestBody UsernameDto usernameDto){
-        svc.updateUserName(authentication.getName(), usernameDto.username());
+        svc.updateUserName(currentUser.id(authentication), usernameDto.username());
         return ResponseEntity.ok("Success");
     }
 
     @PostMapping("/login")
-    public ResponseEntity<TokenRes> login(@RequestBody AuthReq req) {
-        String token = svc.login(req.name(), req.password());
-        return ResponseEntity.ok(new TokenRes(token));
+    public CompletableFuture<ResponseEntity<TokenRes>> login(@RequestBody AuthReq req) {
+        return svc.login(req.name(), req.password())
+                .thenApply(token -> ResponseEntity.ok(new TokenRes(token)))
+                .exceptionally(AuthController::loginFailure);
+    }
+
+    private static ResponseEntity<TokenRes> loginFailure(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof BadCredentialsException) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        // hashing queue is full: shed the login rather than queue it
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        if (cause instanceof RuntimeException runtime) throw runtime;
+        throw new CompletionException(cause);
     }
 
     @GetMapping("/me")
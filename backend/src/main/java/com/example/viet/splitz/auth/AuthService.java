@@ -1,46 +1,64 @@
 package com.example.viet.splitz.auth;
 
+import com.example.viet.splitz.configuration.CacheConfig;
+import com.example.viet.splitz.group.MemberRenamedEvent;
 import com.example.viet.splitz.jwt.JwtService;
+import com.example.viet.splitz.membership.MembershipRepository;
 import com.example.viet.splitz.user.User;
 import com.example.viet.splitz.user.UserRepository;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class AuthService {
     private final UserRepository repo;
     private final PasswordEncoder encoder;
     private final JwtService jwt;
-    private final AuthenticationManager authManager;
+    private final PasswordHasher hasher;
+    private final MembershipRepository membershipRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public AuthService(UserRepository repo, PasswordEncoder encoder, JwtService jwt, AuthenticationManager am) {
-        this.repo = repo; this.encoder = encoder; this.jwt = jwt; this.authManager = am;
+    public AuthService(UserRepository repo, PasswordEncoder encoder, JwtService jwt, PasswordHasher hasher,
+                       MembershipRepository membershipRepository, ApplicationEventPublisher eventPublisher) {
+        this.repo = repo; this.encoder = encoder; this.jwt = jwt; this.hasher = hasher;
+        this.membershipRepository = membershipRepository; this.eventPublisher = eventPublisher;
     }
 
     public void signup(String name, String rawPassword) {
-        if (repo.findByName(name).isPresent()) throw new IllegalArgumentException("Username taken");
+        if (repo.findIdAndNameByName(name).isPresent()) throw new IllegalArgumentException("Username taken");
         User u = new User();
         u.setName(name);
         u.setPassword(encoder.encode(rawPassword));
         repo.save(u);
     }
 
-    public void updateUserName(String oldUserName, String userName){
-        User user = repo.findByName(oldUserName).orElseThrow();
+    // the old name is not known up front
+    @CacheEvict(cacheNames = CacheConfig.USERS_BY_NAME, allEntries = true)
+    @Transactional
+    public void updateUserName(Long userId, String userName){
+        User user = repo.findById(userId).orElseThrow();
         user.setName(userName);
         repo.save(user);
+        // the name shows in every group the user is in: bumps their versions and drops the members' dashboards
+        for (Long groupId : membershipRepository.findGroupIdsByUserId(userId)) {
+            eventPublisher.publishEvent(new MemberRenamedEvent(groupId, userId));
+        }
     }
 
-    public String login(String name, String password) {
-        authManager.authenticate(new UsernamePasswordAuthenticationToken(name, password));
-        var user = repo.findByName(name).orElseThrow();
-        var principal = org.springframework.security.core.userdetails.User.withUsername(user.getName())
-                .password(user.getPassword())
-                .build();
-        return jwt.issueAccess(principal.getUsername());
+    // one user lookup; BCrypt runs on the hasher's pool and the request thread is released meanwhile
+    public CompletableFuture<String> login(String name, String password) {
+        User user = repo.findByName(name).orElse(null);
+        return hasher.verify(password, user == null ? null : user.getPassword()).thenApply(result -> {
+            if (!result.matches()) throw new BadCredentialsException("Bad credentials");
+            if (result.upgradedHash() != null) repo.updatePassword(user.getName(), result.upgradedHash());
+            return jwt.issueAccess(user.getId(), user.getName());
+        });
     }
 }
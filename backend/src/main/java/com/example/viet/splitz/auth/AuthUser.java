@@ -0,0 +1,14 @@
+package com.example.viet.splitz.auth;
+
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+/**
+ * Principal put into the SecurityContext by JwtAuthFilter. {@code id} is null
+ * for tokens issued before the user id was added to the JWT.
+ */
+public record AuthUser(Long id, String name) implements AuthenticatedPrincipal {
+    @Override
+    public String getName() {
+        return name;
+    }
+}
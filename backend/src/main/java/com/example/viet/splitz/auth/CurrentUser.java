@@ -0,0 +1,45 @@
+package com.example.viet.splitz.auth;
+
+import com.example.viet.splitz.membership.MembershipRepository;
+import com.example.viet.splitz.user.User;
+import com.example.viet.splitz.user.UserRepository;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the caller from the authenticated principal. Tokens carry the user
+ * id, so this costs no query; only legacy name-only tokens fall back to a
+ * lookup by name.
+ */
+@Component
+public class CurrentUser {
+    private final UserRepository userRepository;
+    private final MembershipRepository membershipRepository;
+
+    public CurrentUser(UserRepository userRepository, MembershipRepository membershipRepository) {
+        this.userRepository = userRepository;
+        this.membershipRepository = membershipRepository;
+    }
+
+    public Long id(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof AuthUser authUser && authUser.id() != null) {
+            return authUser.id();
+        }
+        return userRepository.findIdAndNameByName(authentication.getName()).orElseThrow().id();
+    }
+
+    // lazy proxy, good for setting associations without loading the user row
+    public User reference(Authentication authentication) {
+        return userRepository.getReferenceById(id(authentication));
+    }
+
+    // AccessDeniedException is answered with 403 by the security filter chain
+    public Long requireMember(Authentication authentication, Long groupId) {
+        Long userId = id(authentication);
+        if (!membershipRepository.existsByGroupIdAndUserId(groupId, userId)) {
+            throw new AccessDeniedException("Not a member of group " + groupId);
+        }
+        return userId;
+    }
+}
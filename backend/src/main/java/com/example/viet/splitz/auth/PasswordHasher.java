@@ -0,0 +1,90 @@
+package com.example.viet.splitz.auth;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs BCrypt on its own small pool so a login burst cannot take every
+ * request thread. The queue is bounded; once it is full new work fails
+ * straight away with {@link RejectedExecutionException} instead of waiting.
+ */
+@Component
+public class PasswordHasher {
+    public record Verification(boolean matches, String upgradedHash) {}
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor pool;
+    private final boolean rehash;
+    private final String dummyHash;
+    private final Timer hashTimer;
+    private final Counter rejected;
+    private final Counter rehashed;
+
+    public PasswordHasher(PasswordEncoder encoder, MeterRegistry registry,
+                          @Value("${auth.bcrypt.threads:0}") int threads,
+                          @Value("${auth.bcrypt.queue-capacity:64}") int queueCapacity,
+                          @Value("${auth.bcrypt.rehash:true}") boolean rehash) {
+        this.encoder = encoder;
+        this.rehash = rehash;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "bcrypt-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        // unknown users are checked against this so they take as long as real ones
+        this.dummyHash = encoder.encode("dummy-password");
+        this.hashTimer = Timer.builder("auth.password.hash").description("BCrypt verify time, including any rehash").register(registry);
+        this.rejected = Counter.builder("auth.password.rejected").description("Hash jobs refused because the queue was full").register(registry);
+        this.rehashed = Counter.builder("auth.password.rehashed").description("Stored hashes upgraded on login").register(registry);
+        Gauge.builder("auth.password.queue", pool, p -> p.getQueue().size()).description("Hash jobs waiting for a thread").register(registry);
+        Gauge.builder("auth.password.active", pool, ThreadPoolExecutor::getActiveCount).register(registry);
+    }
+
+    /**
+     * Verifies {@code raw} against {@code hash}, or against a dummy hash when
+     * {@code hash} is null. When the stored hash is weaker than the configured
+     * cost and rehashing is on, the result carries a replacement hash.
+     */
+    public CompletableFuture<Verification> verify(String raw, String hash) {
+        return submit(() -> {
+            boolean matches = encoder.matches(raw, hash == null ? dummyHash : hash);
+            if (!matches || hash == null || !rehash || !encoder.upgradeEncoding(hash)) {
+                return new Verification(matches && hash != null, null);
+            }
+            rehashed.increment();
+            return new Verification(true, encoder.encode(raw));
+        });
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(() -> hashTimer.record(work), pool);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+    }
+}
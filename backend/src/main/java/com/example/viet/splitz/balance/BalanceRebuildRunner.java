@@ -0,0 +1,29 @@
+package com.example.viet.splitz.balance;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Regenerates member_balance from expenses, settlements and memberships.
+ * Run the app with {@code --rebuild-balances} to trigger it.
+ */
+@Component
+public class BalanceRebuildRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(BalanceRebuildRunner.class);
+
+    private final BalanceService balanceService;
+
+    public BalanceRebuildRunner(BalanceService balanceService) {
+        this.balanceService = balanceService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption("rebuild-balances")) return;
+        int rows = balanceService.rebuild();
+        log.info("Rebuilt member_balance: {} rows", rows);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.viet.splitz.balance;
+
+import com.example.viet.splitz.expense.ExpenseShareRepository;
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.user.User;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Keeps the member_balance table in step with expenses and settlements.
+ * The record methods must run inside the caller's transaction so the balance
+ * row and the raw row commit (or roll back) together, and after the caller
+ * has locked the group row (GroupRepository.lockById): one change spans
+ * several members' rows, so two changes to a group would otherwise update
+ * the same rows in different orders and deadlock. A rebuild derives the rows
+ * from the ledger_entry journal.
+ */
+@Service
+public class BalanceService {
+    private interface Column {
+        int add(Long groupId, Long userId, BigDecimal amount);
+    }
+
+    private final MemberBalanceRepository memberBalanceRepository;
+    private final ExpenseShareRepository expenseShareRepository;
+    private final LedgerService ledgerService;
+
+    public BalanceService(MemberBalanceRepository memberBalanceRepository, ExpenseShareRepository expenseShareRepository,
+                          LedgerService ledgerService) {
+        this.memberBalanceRepository = memberBalanceRepository;
+        this.expenseShareRepository = expenseShareRepository;
+        this.ledgerService = ledgerService;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void openAccount(Group group, User user) {
+        memberBalanceRepository.insertIfAbsent(group.getId(), user.getId());
+    }
+
+    /**
+     * @param owedByUser each participant's share of the expense(s), keyed by user id
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordExpense(Group group, User payer, BigDecimal amount, Map<Long, BigDecimal> owedByUser) {
+        recordPaid(group, payer, amount);
+        recordOwed(group, owedByUser);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPaid(Group group, User payer, BigDecimal amount) {
+        add(memberBalanceRepository::addPaid, group.getId(), payer.getId(), amount);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOwed(Group group, Map<Long, BigDecimal> owedByUser) {
+        owedByUser.forEach((userId, owed) -> add(memberBalanceRepository::addOwed, group.getId(), userId, owed));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSettlement(Group group, User payer, User receiver, BigDecimal amount) {
+        add(memberBalanceRepository::addSent, group.getId(), payer.getId(), amount);
+        add(memberBalanceRepository::addReceived, group.getId(), receiver.getId(), amount);
+    }
+
+    // members normally have a row from openAccount; one without gets it created once, then the update is retried
+    private void add(Column column, Long groupId, Long userId, BigDecimal amount) {
+        if (column.add(groupId, userId, amount) == 0) {
+            memberBalanceRepository.insertIfAbsent(groupId, userId);
+            column.add(groupId, userId, amount);
+        }
+    }
+
+    @Transactional
+    public int rebuild() {
+        expenseShareRepository.backfillEqualShares();
+        ledgerService.appendMissing();
+        memberBalanceRepository.deleteAllRows();
+        return memberBalanceRepository.insertFromLedger();
+    }
+
+    // recomputes only the given groups, e.g. after a user's rows were removed from them
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int rebuild(Collection<Long> groupIds) {
+        if (groupIds.isEmpty()) return 0;
+        memberBalanceRepository.bulkDeleteByGroupIds(groupIds);
+        return memberBalanceRepository.insertFromLedgerForGroups(groupIds);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.viet.splitz.balance;
+
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.user.User;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// a member's net in a group after every expense and settlement dated on or before periodEnd
+@Entity
+@Table(name = "balance_snapshot",
+        uniqueConstraints = @UniqueConstraint(name = "uk_balance_snapshot_group_period_user", columnNames = {"group_id", "period_end", "user_id"}))
+public class BalanceSnapshot {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_snapshot_seq")
+    @SequenceGenerator(name = "balance_snapshot_seq", sequenceName = "balance_snapshot_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "group_id", nullable = false)
+    private Group group;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "period_end", nullable = false)
+    private LocalDate periodEnd;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal net;
+
+    public BalanceSnapshot() {
+    }
+
+    public BalanceSnapshot(Group group, User user, LocalDate periodEnd, BigDecimal net) {
+        this.group = group;
+        this.user = user;
+        this.periodEnd = periodEnd;
+        this.net = net;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Group getGroup() {
+        return group;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public LocalDate getPeriodEnd() {
+        return periodEnd;
+    }
+
+    public BigDecimal getNet() {
+        return net;
+    }
+}
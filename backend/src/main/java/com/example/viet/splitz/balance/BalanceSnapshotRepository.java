@@ -0,0 +1,42 @@
+package com.example.viet.splitz.balance;
+
+import com.example.viet.splitz.balance.dtos.UserNetDto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+    @Query("""
+            select max(s.periodEnd)
+            from BalanceSnapshot s
+            where s.group.id = :groupId and s.periodEnd <= :date
+            """)
+    Optional<LocalDate> findLatestPeriodEnd(Long groupId, LocalDate date);
+
+    @Query("""
+            select new com.example.viet.splitz.balance.dtos.UserNetDto(s.user.id, s.net)
+            from BalanceSnapshot s
+            where s.group.id = :groupId and s.periodEnd = :periodEnd
+            """)
+    List<UserNetDto> findNets(Long groupId, LocalDate periodEnd);
+
+    @Query("""
+            select g.id from Group g
+            where not exists (select 1 from BalanceSnapshot s where s.group = g and s.periodEnd = :periodEnd)
+            """)
+    List<Long> findGroupIdsWithoutSnapshot(LocalDate periodEnd);
+
+    // a change dated on or before a snapshot makes it and every later one wrong
+    @Modifying
+    @Query("delete from BalanceSnapshot s where s.group.id = :groupId and s.periodEnd >= :date")
+    int bulkDeleteFrom(Long groupId, LocalDate date);
+
+    @Modifying
+    @Query("delete from BalanceSnapshot s where s.group.id in :groupIds")
+    int bulkDeleteByGroupIds(Collection<Long> groupIds);
+}
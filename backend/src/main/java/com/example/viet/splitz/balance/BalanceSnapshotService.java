@@ -0,0 +1,168 @@
+package com.example.viet.splitz.balance;
+
+import com.example.viet.splitz.balance.dtos.UserNetDto;
+import com.example.viet.splitz.expense.ExpenseCreatedEvent;
+import com.example.viet.splitz.expense.ExpensesImportedEvent;
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.group.GroupEvent;
+import com.example.viet.splitz.group.GroupRepository;
+import com.example.viet.splitz.ledger.LedgerEntry;
+import com.example.viet.splitz.ledger.LedgerEntryRepository;
+import com.example.viet.splitz.settlement.SettlementCreatedEvent;
+import com.example.viet.splitz.user.UserRepository;
+import com.example.viet.splitz.user.dtos.UserBalanceDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Month-end checkpoints of every member's net, so a balance as of any date is
+ * the nearest earlier checkpoint plus the ledger entries dated after it. A
+ * change dated on or before a checkpoint deletes that checkpoint and every
+ * later one of the group; the monthly job writes them again. The job and
+ * the changes take the group row in turn, so a checkpoint never misses a
+ * change that commits while it is being written.
+ */
+@Service
+public class BalanceSnapshotService {
+    private static final Logger log = LoggerFactory.getLogger(BalanceSnapshotService.class);
+    // earlier than any ledger date; the start of the delta for a group without checkpoints
+    static final LocalDate BEGINNING = LocalDate.of(1, 1, 1);
+    static final String JOB = "balance-snapshot";
+
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final GroupRepository groupRepository;
+    private final UserRepository userRepository;
+    private final JobLeaseRepository jobLeaseRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration lease;
+    // this instance's name on the job lease
+    private final String owner = UUID.randomUUID().toString();
+
+    public BalanceSnapshotService(BalanceSnapshotRepository balanceSnapshotRepository, LedgerEntryRepository ledgerEntryRepository,
+                                  GroupRepository groupRepository, UserRepository userRepository,
+                                  JobLeaseRepository jobLeaseRepository, PlatformTransactionManager transactionManager,
+                                  @Value("${balance.snapshot.lease:1h}") Duration lease) {
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.groupRepository = groupRepository;
+        this.userRepository = userRepository;
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lease = lease;
+    }
+
+    // current members in name order, like UserRepository.findUsersBalanceByGroupId
+    @Transactional(readOnly = true)
+    public List<UserBalanceDto> balancesAsOf(Long groupId, LocalDate asOf) {
+        LocalDate checkpoint = balanceSnapshotRepository.findLatestPeriodEnd(groupId, asOf).orElse(null);
+        Map<Long, BigDecimal> net = nets(groupId, checkpoint);
+        addChanges(net, groupId, checkpoint == null ? BEGINNING : checkpoint, asOf);
+        return userRepository.findMembersByGroupId(groupId).stream()
+                .map(member -> new UserBalanceDto(member.id(), member.name(), net.getOrDefault(member.id(), BigDecimal.ZERO)))
+                .toList();
+    }
+
+    // every instance fires the cron; only the one that takes the lease runs it
+    @Scheduled(cron = "${balance.snapshot.cron:0 15 0 1 * *}")
+    public void snapshotLastMonth() {
+        if (!acquireLease()) {
+            log.info("Balance snapshots are being written by another instance");
+            return;
+        }
+        try {
+            snapshotThrough(YearMonth.now().minusMonths(1).atEndOfMonth());
+        } finally {
+            transactionTemplate.executeWithoutResult(status -> jobLeaseRepository.release(JOB, owner, Instant.now()));
+        }
+    }
+
+    // writes every missing month end up to periodEnd, one transaction per group
+    public int snapshotThrough(LocalDate periodEnd) {
+        int rows = 0;
+        for (Long groupId : balanceSnapshotRepository.findGroupIdsWithoutSnapshot(periodEnd)) {
+            Integer written = transactionTemplate.execute(status -> snapshotGroup(groupId, periodEnd));
+            rows += written == null ? 0 : written;
+        }
+        log.info("Wrote {} balance snapshots through {}", rows, periodEnd);
+        return rows;
+    }
+
+    // runs in the writing transaction after GroupVersionBumper, so a snapshotGroup in progress commits first and is deleted here
+    @EventListener
+    public void onGroupChanged(GroupEvent event) {
+        LocalDate date = event instanceof ExpenseCreatedEvent expense ? expense.date()
+                : event instanceof SettlementCreatedEvent settlement ? settlement.date()
+                : event instanceof ExpensesImportedEvent imported ? imported.earliestDate()
+                : null;
+        if (date != null) balanceSnapshotRepository.bulkDeleteFrom(event.groupId(), date);
+    }
+
+    private boolean acquireLease() {
+        Instant now = Instant.now();
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            jobLeaseRepository.insertIfAbsent(JOB);
+            return jobLeaseRepository.acquire(JOB, owner, now, now.plus(lease)) == 1;
+        }));
+    }
+
+    private int snapshotGroup(Long groupId, LocalDate through) {
+        // waits for a change in flight to commit, and keeps new ones out until the snapshots are saved;
+        // a second run that queued behind this one finds the month written and adds nothing
+        if (groupRepository.lockById(groupId) == 0) return 0;
+        LocalDate previous = balanceSnapshotRepository.findLatestPeriodEnd(groupId, through).orElse(null);
+        LocalDate periodEnd;
+        if (previous != null) {
+            periodEnd = YearMonth.from(previous).plusMonths(1).atEndOfMonth();
+        } else {
+            LocalDate first = ledgerEntryRepository.findFirstEntryDate(groupId).orElse(null);
+            if (first == null) return 0;
+            periodEnd = YearMonth.from(first).atEndOfMonth();
+        }
+        Group group = groupRepository.getReferenceById(groupId);
+        Map<Long, BigDecimal> net = nets(groupId, previous);
+        LocalDate after = previous == null ? BEGINNING : previous;
+        List<BalanceSnapshot> snapshots = new ArrayList<>();
+        while (!periodEnd.isAfter(through)) {
+            addChanges(net, groupId, after, periodEnd);
+            for (Map.Entry<Long, BigDecimal> entry : net.entrySet()) {
+                snapshots.add(new BalanceSnapshot(group, userRepository.getReferenceById(entry.getKey()), periodEnd, entry.getValue()));
+            }
+            after = periodEnd;
+            periodEnd = YearMonth.from(periodEnd).plusMonths(1).atEndOfMonth();
+        }
+        balanceSnapshotRepository.saveAll(snapshots);
+        return snapshots.size();
+    }
+
+    private Map<Long, BigDecimal> nets(Long groupId, LocalDate periodEnd) {
+        Map<Long, BigDecimal> net = new HashMap<>();
+        if (periodEnd == null) return net;
+        for (UserNetDto row : balanceSnapshotRepository.findNets(groupId, periodEnd)) net.put(row.userId(), row.net());
+        return net;
+    }
+
+    private void addChanges(Map<Long, BigDecimal> net, Long groupId, LocalDate after, LocalDate through) {
+        for (Object[] row : ledgerEntryRepository.sumByUser(groupId, after, through)) {
+            net.merge(((Number) row[0]).longValue(), LedgerEntry.fromMinorUnits(((Number) row[1]).longValue()), BigDecimal::add);
+        }
+    }
+}
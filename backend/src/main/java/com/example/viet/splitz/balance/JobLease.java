@@ -0,0 +1,35 @@
+package com.example.viet.splitz.balance;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// which instance may run a scheduled job, and until when; written only through JobLeaseRepository's bulk queries
+@Entity
+@Table(name = "job_lease")
+public class JobLease {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(name = "locked_until", nullable = false)
+    private Instant lockedUntil;
+
+    @Column(name = "locked_by", length = 64)
+    private String lockedBy;
+
+    public JobLease() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Instant getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public String getLockedBy() {
+        return lockedBy;
+    }
+}
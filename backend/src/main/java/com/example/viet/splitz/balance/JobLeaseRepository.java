@@ -0,0 +1,35 @@
+package com.example.viet.splitz.balance;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+    // creates the job's row, already expired, the first time any instance runs it
+    @Modifying
+    @Query(value = """
+            INSERT INTO job_lease (name, locked_until)
+            VALUES (:name, TIMESTAMP WITH TIME ZONE '1970-01-01 00:00:00+00')
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(String name);
+
+    // 1 when the lease was free and is now the owner's; the row lock makes concurrent callers take turns
+    @Modifying
+    @Query("""
+            update JobLease j
+            set j.lockedUntil = :until, j.lockedBy = :owner
+            where j.name = :name and j.lockedUntil <= :now
+            """)
+    int acquire(String name, String owner, Instant now, Instant until);
+
+    @Modifying
+    @Query("""
+            update JobLease j
+            set j.lockedUntil = :now, j.lockedBy = null
+            where j.name = :name and j.lockedBy = :owner
+            """)
+    int release(String name, String owner, Instant now);
+}
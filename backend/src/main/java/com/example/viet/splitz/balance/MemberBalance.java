@@ -0,0 +1,106 @@
+package com.example.viet.splitz.balance;
+
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.user.User;
+import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "member_balance",
+        uniqueConstraints = @UniqueConstraint(name = "uk_member_balance_group_user", columnNames = {"group_id", "user_id"}),
+        indexes = @Index(name = "idx_member_balance_user", columnList = "user_id"))
+public class MemberBalance {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "group_id", nullable = false)
+    private Group group;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    // sum of this member's expense shares in the group
+    @ColumnDefault("0")
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal owed = BigDecimal.ZERO;
+
+    // total of expenses this member paid for the group
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal paid = BigDecimal.ZERO;
+
+    // settlements this member received / sent inside the group
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal received = BigDecimal.ZERO;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal sent = BigDecimal.ZERO;
+
+    public MemberBalance() {
+    }
+
+    public MemberBalance(Group group, User user) {
+        this.group = group;
+        this.user = user;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Group getGroup() {
+        return group;
+    }
+
+    public void setGroup(Group group) {
+        this.group = group;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public BigDecimal getOwed() {
+        return owed;
+    }
+
+    public void setOwed(BigDecimal owed) {
+        this.owed = owed;
+    }
+
+    public BigDecimal getPaid() {
+        return paid;
+    }
+
+    public void setPaid(BigDecimal paid) {
+        this.paid = paid;
+    }
+
+    public BigDecimal getReceived() {
+        return received;
+    }
+
+    public void setReceived(BigDecimal received) {
+        this.received = received;
+    }
+
+    public BigDecimal getSent() {
+        return sent;
+    }
+
+    public void setSent(BigDecimal sent) {
+        this.sent = sent;
+    }
+}
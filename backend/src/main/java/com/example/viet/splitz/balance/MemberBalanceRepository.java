@@ -0,0 +1,98 @@
+package com.example.viet.splitz.balance;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+public interface MemberBalanceRepository extends JpaRepository<MemberBalance, Long> {
+    // creates a member's zero row; a row another transaction is inserting wins, so the unique key is never tripped
+    @Modifying
+    @Query(value = """
+            INSERT INTO member_balance (group_id, user_id, owed, paid, received, sent)
+            VALUES (:groupId, :userId, 0, 0, 0, 0)
+            ON CONFLICT DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(Long groupId, Long userId);
+
+    @Modifying
+    @Query("""
+            update MemberBalance b
+            set b.paid = b.paid + :amount
+            where b.group.id = :groupId and b.user.id = :userId
+            """)
+    int addPaid(Long groupId, Long userId, BigDecimal amount);
+
+    @Modifying
+    @Query("""
+            update MemberBalance b
+            set b.owed = b.owed + :amount
+            where b.group.id = :groupId and b.user.id = :userId
+            """)
+    int addOwed(Long groupId, Long userId, BigDecimal amount);
+
+    @Modifying
+    @Query("""
+            update MemberBalance b
+            set b.received = b.received + :amount
+            where b.group.id = :groupId and b.user.id = :userId
+            """)
+    int addReceived(Long groupId, Long userId, BigDecimal amount);
+
+    @Modifying
+    @Query("""
+            update MemberBalance b
+            set b.sent = b.sent + :amount
+            where b.group.id = :groupId and b.user.id = :userId
+            """)
+    int addSent(Long groupId, Long userId, BigDecimal amount);
+
+    @Modifying
+    @Query(value = "DELETE FROM member_balance", nativeQuery = true)
+    int deleteAllRows();
+
+    // member_balance is a projection of the journal: shares are owed, paid expenses paid, settlement legs received/sent
+    @Modifying
+    @Query(value = """
+            INSERT INTO member_balance (group_id, user_id, owed, paid, received, sent)
+            SELECT p.group_id, p.user_id,
+              COALESCE(SUM(CASE WHEN l.source_type = 'EXPENSE' AND l.amount_minor > 0 THEN l.amount_minor END), 0) / 100.0,
+              COALESCE(SUM(CASE WHEN l.source_type = 'EXPENSE' AND l.amount_minor < 0 THEN -l.amount_minor END), 0) / 100.0,
+              COALESCE(SUM(CASE WHEN l.source_type = 'SETTLEMENT' AND l.amount_minor > 0 THEN l.amount_minor END), 0) / 100.0,
+              COALESCE(SUM(CASE WHEN l.source_type = 'SETTLEMENT' AND l.amount_minor < 0 THEN -l.amount_minor END), 0) / 100.0
+            FROM (
+              SELECT group_id, user_id FROM group_members
+              UNION SELECT group_id, user_id FROM ledger_entry
+            ) p
+            LEFT JOIN ledger_entry l ON l.group_id = p.group_id AND l.user_id = p.user_id
+            GROUP BY p.group_id, p.user_id
+            """, nativeQuery = true)
+    int insertFromLedger();
+
+    @Query("select b.group.id from MemberBalance b where b.user.id = :userId")
+    List<Long> findGroupIdsByUserId(Long userId);
+
+    @Modifying
+    @Query("delete from MemberBalance b where b.group.id in :groupIds")
+    int bulkDeleteByGroupIds(Collection<Long> groupIds);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO member_balance (group_id, user_id, owed, paid, received, sent)
+            SELECT p.group_id, p.user_id,
+              COALESCE(SUM(CASE WHEN l.source_type = 'EXPENSE' AND l.amount_minor > 0 THEN l.amount_minor END), 0) / 100.0,
+              COALESCE(SUM(CASE WHEN l.source_type = 'EXPENSE' AND l.amount_minor < 0 THEN -l.amount_minor END), 0) / 100.0,
+              COALESCE(SUM(CASE WHEN l.source_type = 'SETTLEMENT' AND l.amount_minor > 0 THEN l.amount_minor END), 0) / 100.0,
+              COALESCE(SUM(CASE WHEN l.source_type = 'SETTLEMENT' AND l.amount_minor < 0 THEN -l.amount_minor END), 0) / 100.0
+            FROM (
+              SELECT group_id, user_id FROM group_members WHERE group_id IN (:groupIds)
+              UNION SELECT group_id, user_id FROM ledger_entry WHERE group_id IN (:groupIds)
+            ) p
+            LEFT JOIN ledger_entry l ON l.group_id = p.group_id AND l.user_id = p.user_id
+            GROUP BY p.group_id, p.user_id
+            """, nativeQuery = true)
+    int insertFromLedgerForGroups(Collection<Long> groupIds);
+}
@@ -0,0 +1,5 @@
+package com.example.viet.splitz.balance.dtos;
+
+import java.math.BigDecimal;
+
+public record UserNetDto(Long userId, BigDecimal net) {}
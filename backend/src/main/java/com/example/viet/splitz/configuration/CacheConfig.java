@@ -0,0 +1,37 @@
+package com.example.viet.splitz.configuration;
+
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caffeine caches for hot lookups. Size, TTL and the cache names come from
+ * spring.cache.* in application.properties. Puts and evictions are deferred
+ * until the surrounding transaction commits, so a concurrent reader cannot
+ * re-cache a row that is about to change.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+    public static final String USERS_BY_NAME = "usersByName";
+    public static final String GROUPS = "groups";
+    public static final String USER_GROUPS = "userGroups";
+    public static final String DASHBOARDS = "dashboards";
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties properties) {
+        CaffeineCacheManager caffeine = new CaffeineCacheManager();
+        if (properties.getCaffeine().getSpec() != null) {
+            caffeine.setCacheSpecification(properties.getCaffeine().getSpec());
+        }
+        caffeine.setCacheNames(properties.getCacheNames());
+        caffeine.setAllowNullValues(false);
+        return new TransactionAwareCacheManagerProxy(caffeine);
+    }
+}
@@ -11,7 +11,7 @@ public class OpenApiConfig {
         return new OpenAPI()
                 .info(new Info()
                         .title("Splitz API")
-                        .description("Group expense tracker — equal split among active members")
+                        .description("Group expense tracker — equal or weighted splits among group members")
                         .version("v1.0.0"));
     }
 }
\ No newline at end of file
@@ -2,6 +2,8 @@ package com.example.viet.splitz.configuration;
 
 import com.example.viet.splitz.jwt.JwtAuthFilter;
 import com.example.viet.splitz.user.UserRepository;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -17,6 +19,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -27,11 +30,18 @@ import java.util.List;
 @EnableMethodSecurity
 public class SecurityConfig {
     private final JwtAuthFilter jwtFilter;
+    private final int managementPort;
 
-    public SecurityConfig(JwtAuthFilter jwtFilter) { this.jwtFilter = jwtFilter; }
+    public SecurityConfig(JwtAuthFilter jwtFilter, @Value("${management.server.port:-1}") int managementPort) {
+        this.jwtFilter = jwtFilter;
+        this.managementPort = managementPort;
+    }
 
     @Bean
-    PasswordEncoder passwordEncoder() { return new BCryptPasswordEncoder(); }
+    PasswordEncoder passwordEncoder(@Value("${auth.bcrypt.strength:10}") int strength) {
+        // hashes below this cost are upgraded on the next successful login when auth.bcrypt.rehash is on
+        return new BCryptPasswordEncoder(strength);
+    }
 
     @Bean
     UserDetailsService userDetailsService(UserRepository repo) {
@@ -54,13 +64,22 @@ public class SecurityConfig {
                 .cors(Customizer.withDefaults())
                 .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // async re-dispatches of streamed responses were already authorized on the original request
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                         .requestMatchers("/auth/**", "/health", "/swagger-ui.html", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        // the scraper has no token; the endpoint is only open on the unpublished management port
+                        .requestMatchers(onManagementPort(managementPort, "/actuator/prometheus")).permitAll()
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtFilter, UsernamePasswordAuthenticationFilter.class);
         return http.build();
     }
 
+    static RequestMatcher onManagementPort(int managementPort, String path) {
+        return request -> request.getLocalPort() == managementPort && path.equals(request.getRequestURI());
+    }
+
     @Bean
     CorsConfigurationSource corsConfigurationSource() {
         var cfg = new CorsConfiguration();
@@ -0,0 +1,41 @@
+package com.example.viet.splitz.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times every public method of every @Service as splitz.service, tagged with
+ * class, method and exception. Endpoints are covered by http.server.requests
+ * and repository queries by spring.data.repository.invocations.
+ */
+@Aspect
+@Component
+public class ServiceTimingAspect {
+    private final MeterRegistry registry;
+
+    public ServiceTimingAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("within(@org.springframework.stereotype.Service *) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(registry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("splitz.service")
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .register(registry));
+        }
+    }
+}
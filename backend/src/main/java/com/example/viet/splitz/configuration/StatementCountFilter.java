@@ -0,0 +1,47 @@
+package com.example.viet.splitz.configuration;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Records how many SQL statements each request ran, tagged like
+ * http.server.requests so the two can be lined up per endpoint.
+ */
+@Component
+public class StatementCountFilter extends OncePerRequestFilter {
+    private final StatementCounter statementCounter;
+    private final MeterRegistry registry;
+
+    public StatementCountFilter(StatementCounter statementCounter, MeterRegistry registry) {
+        this.statementCounter = statementCounter;
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        statementCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = statementCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            DistributionSummary.builder("http.server.requests.statements")
+                    .description("SQL statements per request")
+                    .tag("method", request.getMethod())
+                    .tag("uri", pattern == null ? "UNKNOWN" : pattern.toString())
+                    .publishPercentileHistogram()
+                    .register(registry)
+                    .record(statements);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.viet.splitz.configuration;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts the SQL statements Hibernate prepares on the current thread between
+ * {@link #start()} and {@link #stop()}. Statements on other threads, such as
+ * parallel dashboard branches, are not attributed to the caller.
+ */
+@Component
+public class StatementCounter implements StatementInspector {
+    private final ThreadLocal<int[]> count = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] current = count.get();
+        if (current != null) current[0]++;
+        return sql;
+    }
+
+    public void start() {
+        count.set(new int[1]);
+    }
+
+    public int stop() {
+        int[] current = count.get();
+        count.remove();
+        return current == null ? 0 : current[0];
+    }
+}
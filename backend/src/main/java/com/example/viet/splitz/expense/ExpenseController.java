@@ -2,20 +2,38 @@ package com.example.viet.splitz.expense;
 
 import com.example.viet.splitz.expense.dtos.AddExpenseDto;
 import com.example.viet.splitz.expense.dtos.ExpenseResDto;
+import com.example.viet.splitz.expense.dtos.ImportResultDto;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 @RestController
 @RequestMapping("/expenses")
 public class ExpenseController {
     private final ExpenseService expenseService;
+    private final ExpenseImportService expenseImportService;
 
-    public ExpenseController(ExpenseService expenseService) {
+    public ExpenseController(ExpenseService expenseService, ExpenseImportService expenseImportService) {
         this.expenseService = expenseService;
+        this.expenseImportService = expenseImportService;
     }
 
     @PostMapping
     Long createExpense(@RequestBody AddExpenseDto addExpenseDto){
         return expenseService.createExpense(addExpenseDto);
     }
+
+    // body is streamed: text/csv (description,amount,paidBy,date) or application/x-ndjson
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    ImportResultDto importExpenses(Authentication authentication, @RequestParam Long groupId, @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                   InputStream body) throws IOException {
+        ExpenseImportService.Format format = contentType.startsWith("text/csv")
+                ? ExpenseImportService.Format.CSV
+                : ExpenseImportService.Format.NDJSON;
+        return expenseImportService.importExpenses(authentication, groupId, body, format);
+    }
 }
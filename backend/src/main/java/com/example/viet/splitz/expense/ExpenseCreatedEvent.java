@@ -0,0 +1,9 @@
+package com.example.viet.splitz.expense;
+
+import com.example.viet.splitz.group.GroupEvent;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record ExpenseCreatedEvent(Long groupId, Long expenseId, String description, BigDecimal amount, Long paidBy,
+                                  LocalDate date) implements GroupEvent {}
@@ -0,0 +1,27 @@
+package com.example.viet.splitz.expense;
+
+import com.example.viet.splitz.util.InvalidCursorException;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Keyset position in a group's expense history, ordered by (date desc, id desc).
+ * Serialized as {@code <date>,<id>}, e.g. {@code 2025-03-01,412}.
+ */
+public record ExpenseCursor(LocalDate date, Long id) {
+    public static ExpenseCursor parse(String value) {
+        int comma = value.indexOf(',');
+        if (comma < 0) throw new InvalidCursorException("Cursor must look like <date>,<id>");
+        try {
+            return new ExpenseCursor(LocalDate.parse(value.substring(0, comma)), Long.valueOf(value.substring(comma + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new InvalidCursorException("Cursor must look like <date>,<id>", e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return date + "," + id;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.viet.splitz.expense;
+
+import com.example.viet.splitz.expense.dtos.ImportResultDto;
+import org.springframework.security.core.Authentication;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface ExpenseImportService {
+    enum Format { CSV, NDJSON }
+
+    ImportResultDto importExpenses(Authentication authentication, Long groupId, InputStream body, Format format) throws IOException;
+}
@@ -1,24 +1,60 @@
 package com.example.viet.splitz.expense;
 
-import com.example.viet.splitz.activity.dtos.ActivityDto;
+import com.example.viet.splitz.expense.dtos.ExpenseResDto;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
 import java.awt.print.Pageable;
+import java.time.LocalDate;
 import java.util.List;
 
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
-    List<Expense> findByGroup_Id(Long groupId);
     @Query("""
-            SELECT new com.example.viet.splitz.activity.dtos.ActivityDto(
-              CONCAT('expense:', e.id), 'expense', e.group.id, e.group.name, e.user.name, e.description, -e.amount, e.date
-            )
+            SELECT new com.example.viet.splitz.expense.dtos.ExpenseResDto(e.id, e.description, e.amount, u.name, e.date)
             FROM Expense e
-            WHERE e.group IN (
-              SELECT m.group FROM Membership m WHERE m.user.id = :userId
-            )
+            JOIN e.user u
+            WHERE e.group.id = :groupId
             ORDER BY e.date DESC, e.id DESC
-            LIMIT 10
             """)
-    List<ActivityDto> findRecentExpenseActivitiesForUserGroups(Long userId);
+    List<ExpenseResDto> findExpenseResByGroupId(Long groupId);
+    @Query("""
+            SELECT new com.example.viet.splitz.expense.dtos.ExpenseResDto(e.id, e.description, e.amount, u.name, e.date)
+            FROM Expense e
+            JOIN e.user u
+            WHERE e.group.id = :groupId
+            ORDER BY e.date DESC, e.id DESC
+            """)
+    List<ExpenseResDto> findExpensePage(Long groupId, Limit limit);
+    @Query("""
+            SELECT new com.example.viet.splitz.expense.dtos.ExpenseResDto(e.id, e.description, e.amount, u.name, e.date)
+            FROM Expense e
+            JOIN e.user u
+            WHERE e.group.id = :groupId
+              AND (e.date < :date OR (e.date = :date AND e.id < :id))
+            ORDER BY e.date DESC, e.id DESC
+            """)
+    List<ExpenseResDto> findExpensePageAfter(Long groupId, LocalDate date, Long id, Limit limit);
+
+    long countByGroup_Id(Long groupId);
+
+    @Modifying
+    @Query("delete from Expense e where e.group.id = :groupId")
+    int bulkDeleteByGroupId(Long groupId);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM expenses
+            WHERE id IN (SELECT id FROM expenses WHERE group_id = :groupId ORDER BY id LIMIT :limit)
+            """, nativeQuery = true)
+    int bulkDeleteChunkByGroupId(Long groupId, int limit);
+
+    // the expenses the user paid or has a share of
+    @Query("""
+            select e.id from Expense e
+            where e.user.id = :userId
+               or e.id in (select s.expense.id from ExpenseShare s where s.user.id = :userId)
+            """)
+    List<Long> findIdsByParticipant(Long userId);
 }
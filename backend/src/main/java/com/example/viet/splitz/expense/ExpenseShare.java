@@ -0,0 +1,86 @@
+package com.example.viet.splitz.expense;
+
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.user.User;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "expense_shares", indexes = {
+        @Index(name = "idx_expense_shares_group_user", columnList = "group_id, user_id"),
+        @Index(name = "idx_expense_shares_expense", columnList = "expense_id"),
+        @Index(name = "idx_expense_shares_user", columnList = "user_id")
+})
+public class ExpenseShare {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_shares_seq")
+    @SequenceGenerator(name = "expense_shares_seq", sequenceName = "expense_shares_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "expense_id", nullable = false)
+    private Expense expense;
+
+    // copied from the expense so balances can be grouped without joining expenses
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "group_id", nullable = false)
+    private Group group;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    public ExpenseShare() {
+    }
+
+    public ExpenseShare(Expense expense, User user, BigDecimal amount) {
+        this.expense = expense;
+        this.group = expense.getGroup();
+        this.user = user;
+        this.amount = amount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Expense getExpense() {
+        return expense;
+    }
+
+    public void setExpense(Expense expense) {
+        this.expense = expense;
+    }
+
+    public Group getGroup() {
+        return group;
+    }
+
+    public void setGroup(Group group) {
+        this.group = group;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.viet.splitz.expense;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+
+public interface ExpenseShareRepository extends JpaRepository<ExpenseShare, Long> {
+    // equal split across current members for expenses recorded before shares existed; like ShareCalculator,
+    // everyone gets the amount divided down to the cent and the leftover cents go one each to the first members
+    @Modifying
+    @Query(value = """
+            INSERT INTO expense_shares (id, expense_id, group_id, user_id, amount)
+            SELECT nextval('expense_shares_seq'), x.expense_id, x.group_id, x.user_id,
+                   (x.cents / x.members + CASE WHEN x.position <= MOD(x.cents, x.members) THEN 1 ELSE 0 END) / 100.0
+            FROM (
+              SELECT e.id AS expense_id, e.group_id, m.user_id, CAST(e.amount * 100 AS BIGINT) AS cents,
+                     COUNT(*) OVER (PARTITION BY e.id) AS members,
+                     ROW_NUMBER() OVER (PARTITION BY e.id ORDER BY m.user_id) AS position
+              FROM expenses e
+              JOIN group_members m ON m.group_id = e.group_id
+              WHERE NOT EXISTS (SELECT 1 FROM expense_shares s WHERE s.expense_id = e.id)
+            ) x
+            """, nativeQuery = true)
+    int backfillEqualShares();
+
+    @Modifying
+    @Query("delete from ExpenseShare s where s.group.id = :groupId")
+    int bulkDeleteByGroupId(Long groupId);
+
+    // shares of the next chunk of expenses, see ExpenseRepository.bulkDeleteChunkByGroupId
+    @Modifying
+    @Query(value = """
+            DELETE FROM expense_shares
+            WHERE expense_id IN (SELECT id FROM expenses WHERE group_id = :groupId ORDER BY id LIMIT :limit)
+            """, nativeQuery = true)
+    int bulkDeleteChunkByGroupId(Long groupId, int limit);
+
+    @Modifying
+    @Query("delete from ExpenseShare s where s.expense.id in :expenseIds")
+    int bulkDeleteByExpenseIds(Collection<Long> expenseIds);
+}
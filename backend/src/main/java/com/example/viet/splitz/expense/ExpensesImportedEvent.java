@@ -0,0 +1,8 @@
+package com.example.viet.splitz.expense;
+
+import com.example.viet.splitz.group.GroupEvent;
+
+import java.time.LocalDate;
+
+// one per committed import chunk; earliestDate is the oldest expense date in it
+public record ExpensesImportedEvent(Long groupId, int count, LocalDate earliestDate) implements GroupEvent {}
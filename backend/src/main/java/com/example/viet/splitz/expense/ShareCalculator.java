@@ -0,0 +1,103 @@
+package com.example.viet.splitz.expense;
+
+import com.example.viet.splitz.expense.dtos.AddExpenseDto;
+import com.example.viet.splitz.expense.dtos.SplitDto;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits an expense amount into per-user shares that add up to the amount to
+ * the cent. Weighted splits use the largest-remainder method: every share is
+ * rounded down and the leftover cents go to the largest fractional parts.
+ */
+public final class ShareCalculator {
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private ShareCalculator() {
+    }
+
+    public static Map<Long, BigDecimal> shares(AddExpenseDto dto, Collection<Long> members) {
+        if (dto.amount() == null || dto.amount().signum() <= 0) throw new IllegalArgumentException("amount must be positive");
+        if (dto.amount().stripTrailingZeros().scale() > 2) throw new IllegalArgumentException("amount must have at most 2 decimals");
+        SplitType type = dto.splitType() == null ? SplitType.EQUAL : dto.splitType();
+        List<SplitDto> splits = dto.splits();
+
+        if (splits == null || splits.isEmpty()) {
+            if (type != SplitType.EQUAL) throw new IllegalArgumentException("splits are required for " + type);
+            if (members.isEmpty()) throw new IllegalArgumentException("group has no members");
+            Long[] users = members.toArray(Long[]::new);
+            BigDecimal[] weights = new BigDecimal[users.length];
+            Arrays.fill(weights, BigDecimal.ONE);
+            return allocate(dto.amount(), users, weights);
+        }
+
+        Set<Long> memberSet = new HashSet<>(members);
+        Set<Long> seen = new HashSet<>();
+        Long[] users = new Long[splits.size()];
+        BigDecimal[] values = new BigDecimal[splits.size()];
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < splits.size(); i++) {
+            SplitDto split = splits.get(i);
+            if (!memberSet.contains(split.userId())) throw new IllegalArgumentException("user " + split.userId() + " is not a member of the group");
+            if (!seen.add(split.userId())) throw new IllegalArgumentException("user " + split.userId() + " appears twice in splits");
+            users[i] = split.userId();
+            values[i] = type == SplitType.EQUAL ? BigDecimal.ONE : split.value();
+            if (values[i] == null || values[i].signum() < 0) throw new IllegalArgumentException("split values must be zero or more");
+            total = total.add(values[i]);
+        }
+
+        switch (type) {
+            case EXACT -> {
+                if (total.compareTo(dto.amount()) != 0) throw new IllegalArgumentException("exact splits must add up to the amount");
+                Map<Long, BigDecimal> shares = new LinkedHashMap<>();
+                for (int i = 0; i < users.length; i++) {
+                    if (values[i].stripTrailingZeros().scale() > 2) throw new IllegalArgumentException("exact splits must have at most 2 decimals");
+                    shares.put(users[i], values[i].setScale(2, RoundingMode.UNNECESSARY));
+                }
+                return shares;
+            }
+            case PERCENT -> {
+                if (total.compareTo(HUNDRED) != 0) throw new IllegalArgumentException("percentages must add up to 100");
+            }
+            default -> {
+                if (total.signum() == 0) throw new IllegalArgumentException("split weights must not all be zero");
+            }
+        }
+        return allocate(dto.amount(), users, values);
+    }
+
+    static Map<Long, BigDecimal> allocate(BigDecimal amount, Long[] users, BigDecimal[] weights) {
+        long totalCents = amount.movePointRight(2).longValueExact();
+        BigDecimal weightSum = Arrays.stream(weights).reduce(BigDecimal.ZERO, BigDecimal::add);
+        long[] cents = new long[users.length];
+        BigDecimal[] remainders = new BigDecimal[users.length];
+        long allocated = 0;
+        for (int i = 0; i < users.length; i++) {
+            BigDecimal exact = BigDecimal.valueOf(totalCents).multiply(weights[i]).divide(weightSum, 10, RoundingMode.DOWN);
+            cents[i] = exact.setScale(0, RoundingMode.DOWN).longValueExact();
+            remainders[i] = exact.subtract(BigDecimal.valueOf(cents[i]));
+            allocated += cents[i];
+        }
+        Integer[] order = new Integer[users.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparing((Integer i) -> remainders[i]).reversed());
+        for (int k = 0; allocated < totalCents; k = (k + 1) % order.length) {
+            cents[order[k]]++;
+            allocated++;
+        }
+        Map<Long, BigDecimal> shares = new LinkedHashMap<>();
+        for (int i = 0; i < users.length; i++) {
+            shares.put(users[i], BigDecimal.valueOf(cents[i], 2));
+        }
+        return shares;
+    }
+}
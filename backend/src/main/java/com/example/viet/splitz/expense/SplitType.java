@@ -0,0 +1,3 @@
+package com.example.viet.splitz.expense;
+
+public enum SplitType { EQUAL, SHARES, PERCENT, EXACT }
@@ -1,6 +1,11 @@
 package com.example.viet.splitz.expense.dtos;
 
+import com.example.viet.splitz.expense.SplitType;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
-public record AddExpenseDto(String description, BigDecimal amount, Long paidBy, LocalDate date, Long groupId) {}
+// splitType and splits are optional; without them the expense is split equally across current members
+public record AddExpenseDto(String description, BigDecimal amount, Long paidBy, LocalDate date, Long groupId,
+                            SplitType splitType, List<SplitDto> splits) {}
@@ -0,0 +1,5 @@
+package com.example.viet.splitz.expense.dtos;
+
+import java.util.List;
+
+public record ExpensePageDto(List<ExpenseResDto> items, String next) {}
@@ -0,0 +1,3 @@
+package com.example.viet.splitz.expense.dtos;
+
+public record ImportErrorDto(long line, String message) {}
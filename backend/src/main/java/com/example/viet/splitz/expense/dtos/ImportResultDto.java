@@ -0,0 +1,5 @@
+package com.example.viet.splitz.expense.dtos;
+
+import java.util.List;
+
+public record ImportResultDto(long imported, long failed, List<ImportErrorDto> errors) {}
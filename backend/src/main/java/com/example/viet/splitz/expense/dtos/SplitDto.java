@@ -0,0 +1,6 @@
+package com.example.viet.splitz.expense.dtos;
+
+import java.math.BigDecimal;
+
+// value is a weight for SHARES, a percentage for PERCENT, an amount for EXACT and ignored for EQUAL
+public record SplitDto(Long userId, BigDecimal value) {}
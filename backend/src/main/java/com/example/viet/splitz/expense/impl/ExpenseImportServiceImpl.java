@@ -0,0 +1,240 @@
+package com.example.viet.splitz.expense.impl;
+
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.balance.BalanceService;
+import com.example.viet.splitz.expense.Expense;
+import com.example.viet.splitz.expense.ExpenseImportService;
+import com.example.viet.splitz.expense.ExpenseRepository;
+import com.example.viet.splitz.expense.ExpensesImportedEvent;
+import com.example.viet.splitz.expense.ExpenseShare;
+import com.example.viet.splitz.expense.ExpenseShareRepository;
+import com.example.viet.splitz.expense.ShareCalculator;
+import com.example.viet.splitz.expense.dtos.AddExpenseDto;
+import com.example.viet.splitz.expense.dtos.ImportErrorDto;
+import com.example.viet.splitz.expense.dtos.ImportResultDto;
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.group.GroupRepository;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.membership.MembershipRepository;
+import com.example.viet.splitz.user.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Streams expense rows from the request body and stores them in chunks, one
+ * transaction per chunk. Rows are validated as they are read; a bad row is
+ * reported with its line number and skipped, it never fails the whole import.
+ */
+@Service
+public class ExpenseImportServiceImpl implements ExpenseImportService {
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private record Row(long line, AddExpenseDto expense) {}
+
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseShareRepository expenseShareRepository;
+    private final GroupRepository groupRepository;
+    private final UserRepository userRepository;
+    private final MembershipRepository membershipRepository;
+    private final BalanceService balanceService;
+    private final LedgerService ledgerService;
+    private final CurrentUser currentUser;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public ExpenseImportServiceImpl(ExpenseRepository expenseRepository, ExpenseShareRepository expenseShareRepository,
+                                    GroupRepository groupRepository, UserRepository userRepository,
+                                    MembershipRepository membershipRepository, BalanceService balanceService, LedgerService ledgerService,
+                                    CurrentUser currentUser, EntityManager entityManager,
+                                    ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                                    @Value("${expense.import.chunk-size:1000}") int chunkSize) {
+        this.expenseRepository = expenseRepository;
+        this.expenseShareRepository = expenseShareRepository;
+        this.groupRepository = groupRepository;
+        this.userRepository = userRepository;
+        this.membershipRepository = membershipRepository;
+        this.balanceService = balanceService;
+        this.ledgerService = ledgerService;
+        this.currentUser = currentUser;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public ImportResultDto importExpenses(Authentication authentication, Long groupId, InputStream body, Format format) throws IOException {
+        if (!groupRepository.existsById(groupId)) throw new IllegalArgumentException("Group not found");
+        currentUser.requireMember(authentication, groupId);
+        List<Long> memberList = membershipRepository.findUserIdsByGroupId(groupId);
+        Set<Long> members = new HashSet<>(memberList);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+
+        List<ImportErrorDto> errors = new ArrayList<>();
+        List<Row> chunk = new ArrayList<>(chunkSize);
+        long lineNo = 0, imported = 0, failed = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) continue;
+            if (lineNo == 1 && format == Format.CSV && line.toLowerCase(Locale.ROOT).startsWith("description")) continue;
+            AddExpenseDto expense;
+            try {
+                expense = format == Format.CSV ? parseCsv(line, groupId) : parseJson(line, groupId);
+            } catch (JsonProcessingException | RuntimeException e) {
+                failed++;
+                report(errors, lineNo, "Unreadable row: " + e.getMessage());
+                continue;
+            }
+            String problem = validate(expense, members);
+            if (problem != null) {
+                failed++;
+                report(errors, lineNo, problem);
+                continue;
+            }
+            chunk.add(new Row(lineNo, expense));
+            if (chunk.size() == chunkSize) {
+                long stored = persist(groupId, memberList, chunk, errors);
+                imported += stored;
+                failed += chunk.size() - stored;
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            long stored = persist(groupId, memberList, chunk, errors);
+            imported += stored;
+            failed += chunk.size() - stored;
+        }
+        return new ImportResultDto(imported, failed, errors);
+    }
+
+    // imported rows are split equally across the group's current members
+    private long persist(Long groupId, List<Long> members, List<Row> rows, List<ImportErrorDto> errors) {
+        try {
+            Integer stored = transactionTemplate.execute(status -> {
+                // before the first balance write, see BalanceService
+                groupRepository.lockById(groupId);
+                Group group = groupRepository.getReferenceById(groupId);
+                List<Expense> expenses = new ArrayList<>(rows.size());
+                List<ExpenseShare> shares = new ArrayList<>(rows.size() * members.size());
+                Map<Long, BigDecimal> paidByUser = new HashMap<>();
+                Map<Long, BigDecimal> owedByUser = new HashMap<>();
+                LocalDate earliest = null;
+                for (Row row : rows) {
+                    AddExpenseDto dto = row.expense();
+                    if (earliest == null || dto.date().isBefore(earliest)) earliest = dto.date();
+                    Expense expense = new Expense(null, dto.description(), dto.amount(), userRepository.getReferenceById(dto.paidBy()),
+                            dto.date(), group);
+                    expenses.add(expense);
+                    paidByUser.merge(dto.paidBy(), dto.amount(), BigDecimal::add);
+                    ShareCalculator.shares(dto, members).forEach((userId, owed) -> {
+                        shares.add(new ExpenseShare(expense, userRepository.getReferenceById(userId), owed));
+                        owedByUser.merge(userId, owed, BigDecimal::add);
+                    });
+                }
+                expenseRepository.saveAll(expenses);
+                expenseShareRepository.saveAll(shares);
+                ledgerService.recordExpenses(expenses, shares);
+                // one balance update per member per chunk instead of one per row
+                paidByUser.forEach((userId, total) ->
+                        balanceService.recordPaid(group, userRepository.getReferenceById(userId), total));
+                balanceService.recordOwed(group, owedByUser);
+                eventPublisher.publishEvent(new ExpensesImportedEvent(groupId, rows.size(), earliest));
+                entityManager.flush();
+                entityManager.clear();
+                return rows.size();
+            });
+            return stored == null ? 0 : stored;
+        } catch (DataAccessException e) {
+            for (Row row : rows) report(errors, row.line(), "Chunk rejected by database: " + e.getMostSpecificCause().getMessage());
+            return 0;
+        }
+    }
+
+    private static String validate(AddExpenseDto expense, Set<Long> members) {
+        if (expense.description() == null || expense.description().isBlank()) return "description is required";
+        if (expense.amount() == null || expense.amount().signum() <= 0) return "amount must be positive";
+        if (expense.amount().stripTrailingZeros().scale() > 2) return "amount must have at most 2 decimals";
+        if (expense.paidBy() == null || !members.contains(expense.paidBy())) return "paidBy is not a member of the group";
+        if (expense.date() == null) return "date is required";
+        return null;
+    }
+
+    private static void report(List<ImportErrorDto> errors, long line, String message) {
+        if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new ImportErrorDto(line, message));
+    }
+
+    // description,amount,paidBy,date
+    private static AddExpenseDto parseCsv(String line, Long groupId) {
+        List<String> cells = splitCsv(line);
+        if (cells.size() != 4) throw new IllegalArgumentException("expected 4 columns, got " + cells.size());
+        return new AddExpenseDto(cells.get(0), new BigDecimal(cells.get(1).trim()), Long.valueOf(cells.get(2).trim()),
+                LocalDate.parse(cells.get(3).trim()), groupId, null, null);
+    }
+
+    private AddExpenseDto parseJson(String line, Long groupId) throws JsonProcessingException {
+        JsonNode node = objectMapper.readTree(line);
+        return new AddExpenseDto(
+                node.path("description").asText(null),
+                node.hasNonNull("amount") ? new BigDecimal(node.get("amount").asText()) : null,
+                node.hasNonNull("paidBy") ? node.get("paidBy").asLong() : null,
+                node.hasNonNull("date") ? LocalDate.parse(node.get("date").asText()) : null,
+                groupId, null, null);
+    }
+
+    static List<String> splitCsv(String line) {
+        List<String> cells = new ArrayList<>(4);
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+}
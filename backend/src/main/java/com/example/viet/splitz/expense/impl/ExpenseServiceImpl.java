@@ -1,27 +1,59 @@
 package com.example.viet.splitz.expense.impl;
 
+import com.example.viet.splitz.balance.BalanceService;
 import com.example.viet.splitz.expense.Expense;
+import com.example.viet.splitz.expense.ExpenseCreatedEvent;
 import com.example.viet.splitz.expense.ExpenseRepository;
 import com.example.viet.splitz.expense.ExpenseService;
+import com.example.viet.splitz.expense.ExpenseShare;
+import com.example.viet.splitz.expense.ExpenseShareRepository;
+import com.example.viet.splitz.expense.ShareCalculator;
 import com.example.viet.splitz.expense.dtos.AddExpenseDto;
 import com.example.viet.splitz.group.GroupRepository;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.membership.MembershipRepository;
 import com.example.viet.splitz.user.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class ExpenseServiceImpl implements ExpenseService {
     private final ExpenseRepository expenseRepository;
+    private final ExpenseShareRepository expenseShareRepository;
     private final UserRepository userRepository;
     private final GroupRepository groupRepository;
+    private final MembershipRepository membershipRepository;
+    private final BalanceService balanceService;
+    private final LedgerService ledgerService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ExpenseServiceImpl(ExpenseRepository expenseRepository, UserRepository userRepository, GroupRepository groupRepository) {
+    public ExpenseServiceImpl(ExpenseRepository expenseRepository, ExpenseShareRepository expenseShareRepository, UserRepository userRepository,
+                              GroupRepository groupRepository, MembershipRepository membershipRepository, BalanceService balanceService,
+                              LedgerService ledgerService, ApplicationEventPublisher eventPublisher) {
         this.expenseRepository = expenseRepository;
+        this.expenseShareRepository = expenseShareRepository;
         this.userRepository = userRepository;
         this.groupRepository = groupRepository;
+        this.membershipRepository = membershipRepository;
+        this.balanceService = balanceService;
+        this.ledgerService = ledgerService;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
+    @Transactional
     public Long createExpense(AddExpenseDto addExpenseDto) {
+        // before the first balance write, see BalanceService
+        groupRepository.lockById(addExpenseDto.groupId());
+        List<Long> members = membershipRepository.findUserIdsByGroupId(addExpenseDto.groupId());
+        Map<Long, BigDecimal> owedByUser = ShareCalculator.shares(addExpenseDto, members);
+
         Expense expense =  new Expense();
         expense.setDescription(addExpenseDto.description());
         expense.setAmount(addExpenseDto.amount());
@@ -29,7 +61,14 @@ public class ExpenseServiceImpl implements ExpenseService {
         expense.setDate(addExpenseDto.date());
         expense.setGroup(groupRepository.findById(addExpenseDto.groupId()).orElseThrow());
         expenseRepository.save(expense);
-        System.out.println(expense);
+
+        List<ExpenseShare> shares = new ArrayList<>(owedByUser.size());
+        owedByUser.forEach((userId, owed) -> shares.add(new ExpenseShare(expense, userRepository.getReferenceById(userId), owed)));
+        expenseShareRepository.saveAll(shares);
+        ledgerService.recordExpenses(List.of(expense), shares);
+        balanceService.recordExpense(expense.getGroup(), expense.getUser(), expense.getAmount(), owedByUser);
+        eventPublisher.publishEvent(new ExpenseCreatedEvent(addExpenseDto.groupId(), expense.getId(), expense.getDescription(),
+                expense.getAmount(), addExpenseDto.paidBy(), expense.getDate()));
         return expense.getId();
     }
 }
@@ -4,6 +4,7 @@ import com.example.viet.splitz.expense.Expense;
 import com.example.viet.splitz.user.User;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.util.List;
 
@@ -17,6 +18,12 @@ public class Group {
     @Column(nullable = false)
     private String name;
 
+    // bumped by GroupVersionBumper on every ledger or membership change; served as the ETag of GET /groups/{id}
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    @JsonIgnore
+    private long version;
+
     @OneToMany(mappedBy = "group", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonIgnore
     private List<Expense> expensesList;
@@ -29,6 +36,10 @@ public class Group {
         this.id = id;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public String getName() {
         return name;
     }
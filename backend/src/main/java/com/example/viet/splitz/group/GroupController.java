@@ -1,26 +1,48 @@
 package com.example.viet.splitz.group;
 
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.expense.dtos.ExpensePageDto;
 import com.example.viet.splitz.group.dtos.GroupIdResDto;
+import com.example.viet.splitz.group.dtos.GroupListDto;
+import com.example.viet.splitz.user.dtos.UserBalanceDto;
 import org.apache.coyote.Response;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RestController;
 import com.example.viet.splitz.expense.Expense;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/groups")
 public class GroupController {
 
     private final GroupService groupService;
+    private final GroupExportService groupExportService;
+    private final GroupEventBroadcaster groupEventBroadcaster;
+    private final GroupRepository groupRepository;
+    private final CurrentUser currentUser;
 
-    public GroupController(GroupService service) {
+    public GroupController(GroupService service, GroupExportService groupExportService, GroupEventBroadcaster groupEventBroadcaster,
+                           GroupRepository groupRepository, CurrentUser currentUser) {
         this.groupService = service;
+        this.groupExportService = groupExportService;
+        this.groupEventBroadcaster = groupEventBroadcaster;
+        this.groupRepository = groupRepository;
+        this.currentUser = currentUser;
     }
 
     // DTOs
@@ -37,13 +59,72 @@ public class GroupController {
     }
 
     @GetMapping("/{id}")
-    public GroupIdResDto get(@PathVariable Long id) {
-        return groupService.get(id);
+    public ResponseEntity<GroupIdResDto> get(@PathVariable Long id, @RequestParam(required = false) Integer expenseLimit,
+                                             WebRequest request) {
+        // a primary-key read of the version decides whether the detail queries run at all
+        Long version = groupRepository.findVersionById(id).orElse(null);
+        if (version == null) return ResponseEntity.notFound().build();
+        String etag = String.valueOf(version);
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        GroupIdResDto body = expenseLimit != null ? groupService.getFirstPage(id, expenseLimit) : groupService.get(id);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .body(body);
+    }
+
+    @GetMapping("/{id}/expenses")
+    public ExpensePageDto expenses(@PathVariable Long id,
+                                   @RequestParam(required = false) String after,
+                                   @RequestParam(required = false) Integer limit,
+                                   Authentication authentication) {
+        currentUser.requireMember(authentication, id);
+        return groupService.expenses(id, after, limit);
+    }
+
+    @GetMapping("/{id}/balances")
+    public ResponseEntity<List<UserBalanceDto>> balances(@PathVariable Long id,
+                                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf,
+                                                         Authentication authentication) {
+        currentUser.requireMember(authentication, id);
+        return ResponseEntity.ok(groupService.balances(id, asOf));
+    }
+
+    // pushes expense, settlement, member and balance deltas; replaces polling GET /groups/{id}
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@PathVariable Long id, Authentication authentication) {
+        currentUser.requireMember(authentication, id);
+        Long version = groupRepository.findVersionById(id).orElse(null);
+        if (version == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(groupEventBroadcaster.subscribe(id, version));
+    }
+
+    @GetMapping("/{id}/export")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable Long id, @RequestParam(defaultValue = "csv") String format,
+                                                        Authentication authentication) {
+        currentUser.requireMember(authentication, id);
+        GroupExportService.Format exportFormat;
+        try {
+            exportFormat = GroupExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        MediaType mediaType = exportFormat == GroupExportService.Format.CSV
+                ? MediaType.parseMediaType("text/csv")
+                : MediaType.parseMediaType("application/x-ndjson");
+        StreamingResponseBody body = out -> groupExportService.export(id, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"group-" + id + "." + exportFormat.name().toLowerCase(Locale.ROOT) + "\"")
+                .body(body);
     }
 
     @GetMapping
-    public List<GroupService.GroupListDto> list(Authentication authentication) {
-        return groupService.list(authentication.getName());
+    public List<GroupListDto> list(Authentication authentication) {
+        return groupService.list(currentUser.id(authentication));
     }
 
     @PostMapping("/{groupId}/members")
@@ -54,9 +135,11 @@ public class GroupController {
     }
 
     @DeleteMapping("/{id}")
-    @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void delete(@PathVariable Long id) {
-        groupService.delete(id);
+    public ResponseEntity<Void> delete(@PathVariable Long id, Authentication authentication) {
+        currentUser.requireMember(authentication, id);
+        // 202 while a large group's ledger is purged in the background
+        if (groupService.delete(id)) return ResponseEntity.accepted().build();
+        return ResponseEntity.noContent().build();
     }
 }
 
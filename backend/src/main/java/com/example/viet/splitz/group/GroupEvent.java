@@ -0,0 +1,10 @@
+package com.example.viet.splitz.group;
+
+/**
+ * Published inside the transaction that changes a group's ledger or
+ * membership. Listeners should only react to the group id; the change itself
+ * is visible once the transaction commits.
+ */
+public interface GroupEvent {
+    Long groupId();
+}
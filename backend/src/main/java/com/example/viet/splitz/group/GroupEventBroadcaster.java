@@ -0,0 +1,206 @@
+package com.example.viet.splitz.group;
+
+import com.example.viet.splitz.expense.ExpenseCreatedEvent;
+import com.example.viet.splitz.expense.ExpensesImportedEvent;
+import com.example.viet.splitz.settlement.SettlementCreatedEvent;
+import com.example.viet.splitz.user.UserRepository;
+import com.example.viet.splitz.user.dtos.UserBalanceDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Pushes committed group changes to SSE subscribers. Idle connections hold no
+ * thread: each subscriber is an async {@link SseEmitter} with a bounded queue,
+ * and a small pool of its own drains a queue only while it has events, so a
+ * slow client blocking in a write never holds the application task executor.
+ * A subscriber that falls a full buffer behind, or whose work the pool's
+ * queue cannot take, gets disconnected and re-fetches the group instead of
+ * slowing everyone else down.
+ */
+@Component
+public class GroupEventBroadcaster {
+    private static final Logger log = LoggerFactory.getLogger(GroupEventBroadcaster.class);
+
+    private final UserRepository userRepository;
+    private final Executor executor;
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    // groups with a balances refresh already queued; a burst of events costs one balance query
+    private final Set<Long> balancesPending = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public GroupEventBroadcaster(UserRepository userRepository,
+                                 @Value("${group.events.threads:4}") int threads,
+                                 @Value("${group.events.queue-capacity:1024}") int queueCapacity,
+                                 @Value("${group.events.buffer-size:64}") int bufferSize,
+                                 @Value("${group.events.timeout:30m}") Duration timeout) {
+        this(userRepository, pool(threads, queueCapacity), bufferSize, timeout);
+    }
+
+    GroupEventBroadcaster(UserRepository userRepository, Executor executor, int bufferSize, Duration timeout) {
+        this.userRepository = userRepository;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    private static ThreadPoolExecutor pool(int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "group-events-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public SseEmitter subscribe(Long groupId, long version) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(groupId, emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.computeIfAbsent(groupId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        offer(subscriber, () -> SseEmitter.event().name("ready").data(Map.of("version", version)));
+        return emitter;
+    }
+
+    public int subscriberCount(Long groupId) {
+        Set<Subscriber> set = subscribers.get(groupId);
+        return set == null ? 0 : set.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onGroupChanged(GroupEvent event) {
+        if (subscriberCount(event.groupId()) == 0) return;
+        String name = event instanceof ExpenseCreatedEvent ? "expense"
+                : event instanceof ExpensesImportedEvent ? "expenses-imported"
+                : event instanceof SettlementCreatedEvent ? "settlement"
+                : event instanceof MemberAddedEvent ? "member"
+                : event instanceof MemberRemovedEvent ? "member-removed"
+                : event instanceof MemberRenamedEvent ? "member-renamed"
+                : "changed";
+        broadcast(event.groupId(), () -> SseEmitter.event().name(name).data(event));
+        if (balancesPending.add(event.groupId())) {
+            try {
+                executor.execute(() -> {
+                    balancesPending.remove(event.groupId());
+                    List<UserBalanceDto> balances = userRepository.findUsersBalanceByGroupId(event.groupId());
+                    broadcast(event.groupId(), () -> SseEmitter.event().name("balances").data(balances));
+                });
+            } catch (RejectedExecutionException e) {
+                // skipped; the next change of the group sends balances again
+                balancesPending.remove(event.groupId());
+            }
+        }
+    }
+
+    // keeps proxies from closing idle streams
+    @Scheduled(fixedRateString = "${group.events.heartbeat:30s}")
+    public void heartbeat() {
+        subscribers.values().forEach(set -> set.forEach(s -> offer(s, () -> SseEmitter.event().comment("ping"))));
+    }
+
+    // builders are single-use, so every subscriber gets its own from the supplier
+    private void broadcast(Long groupId, Supplier<SseEventBuilder> event) {
+        Set<Subscriber> set = subscribers.get(groupId);
+        if (set == null) return;
+        for (Subscriber subscriber : set) offer(subscriber, event);
+    }
+
+    private void offer(Subscriber subscriber, Supplier<SseEventBuilder> event) {
+        if (subscriber.closing) return;
+        if (!subscriber.queue.offer(event)) {
+            subscriber.closing = true;
+            subscriber.queue.clear();
+            subscriber.queue.offer(() -> SseEmitter.event().name("resync").data(Map.of("groupId", subscriber.groupId)));
+        }
+        if (subscriber.draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                log.debug("Dropping SSE subscriber of group {}: event pool is full", subscriber.groupId);
+                subscriber.queue.clear();
+                remove(subscriber);
+                subscriber.emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            Supplier<SseEventBuilder> event;
+            while ((event = subscriber.queue.poll()) != null) {
+                try {
+                    subscriber.emitter.send(event.get());
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Dropping SSE subscriber of group {}: {}", subscriber.groupId, e.getMessage());
+                    subscriber.queue.clear();
+                    remove(subscriber);
+                    subscriber.emitter.completeWithError(e);
+                    subscriber.draining.set(false);
+                    return;
+                }
+            }
+            if (subscriber.closing) {
+                remove(subscriber);
+                subscriber.emitter.complete();
+            }
+            subscriber.draining.set(false);
+            // an event may have arrived between the last poll and releasing the flag
+        } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.groupId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor instanceof ExecutorService pool) pool.shutdownNow();
+    }
+
+    private static final class Subscriber {
+        final Long groupId;
+        final SseEmitter emitter;
+        final BlockingQueue<Supplier<SseEventBuilder>> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closing;
+
+        Subscriber(Long groupId, SseEmitter emitter, BlockingQueue<Supplier<SseEventBuilder>> queue) {
+            this.groupId = groupId;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+    }
+}
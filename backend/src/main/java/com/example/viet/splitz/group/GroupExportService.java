@@ -0,0 +1,76 @@
+package com.example.viet.splitz.group;
+
+import com.example.viet.splitz.group.dtos.LedgerRowDto;
+import com.example.viet.splitz.ledger.LedgerEntryRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes a group's expenses and settlements, in ledger order, straight from
+ * one scrolled result set over the journal to the response. Nothing is
+ * collected into a list, so heap use does not grow with the size of the export.
+ */
+@Service
+public class GroupExportService {
+    public enum Format { CSV, NDJSON }
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final ObjectMapper objectMapper;
+
+    public GroupExportService(LedgerEntryRepository ledgerEntryRepository, ObjectMapper objectMapper) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public void export(Long groupId, Format format, OutputStream out) throws IOException {
+        try (Stream<LedgerRowDto> ledger = ledgerEntryRepository.streamLedgerRowsByGroupId(groupId)) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            if (format == Format.CSV) writer.write("type,id,date,description,paid_by,received_by,amount\n");
+            Iterator<LedgerRowDto> rows = ledger.iterator();
+            while (rows.hasNext()) {
+                LedgerRowDto row = rows.next();
+                if (format == Format.CSV) {
+                    writeCsv(writer, row);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+            }
+            writer.flush();
+        }
+    }
+
+    private static void writeCsv(Writer writer, LedgerRowDto row) throws IOException {
+        writer.write(row.type());
+        writer.write(',');
+        writer.write(String.valueOf(row.id()));
+        writer.write(',');
+        writer.write(row.date().toString());
+        writer.write(',');
+        writer.write(csvCell(row.description()));
+        writer.write(',');
+        writer.write(csvCell(row.paidBy()));
+        writer.write(',');
+        writer.write(csvCell(row.receivedBy()));
+        writer.write(',');
+        writer.write(row.amount().toPlainString());
+        writer.write('\n');
+    }
+
+    static String csvCell(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) return value;
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.viet.splitz.group;
+
+// published once a large group is detached from its members; its ledger is purged after commit
+public record GroupPurgeRequestedEvent(Long groupId) {}
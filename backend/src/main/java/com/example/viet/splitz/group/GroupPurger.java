@@ -0,0 +1,132 @@
+package com.example.viet.splitz.group;
+
+import com.example.viet.splitz.balance.BalanceSnapshotRepository;
+import com.example.viet.splitz.balance.MemberBalanceRepository;
+import com.example.viet.splitz.expense.ExpenseRepository;
+import com.example.viet.splitz.expense.ExpenseShareRepository;
+import com.example.viet.splitz.ledger.LedgerEntryRepository;
+import com.example.viet.splitz.membership.MembershipRepository;
+import com.example.viet.splitz.settlement.SettlementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.function.IntSupplier;
+
+/**
+ * Deletes a group with set-based statements in foreign-key order; no entity
+ * is loaded. A group with more expenses than the threshold loses its
+ * memberships and balances straight away, so it disappears for its members.
+ * Its journal and expenses are then deleted after commit in chunks, one
+ * transaction each, and the group row goes last.
+ */
+@Component
+public class GroupPurger {
+    private static final Logger log = LoggerFactory.getLogger(GroupPurger.class);
+
+    private final GroupRepository groupRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseShareRepository expenseShareRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final SettlementRepository settlementRepository;
+    private final MembershipRepository membershipRepository;
+    private final MemberBalanceRepository memberBalanceRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor executor;
+    private final long asyncThreshold;
+    private final int chunkSize;
+
+    public GroupPurger(GroupRepository groupRepository, ExpenseRepository expenseRepository,
+                       ExpenseShareRepository expenseShareRepository, LedgerEntryRepository ledgerEntryRepository,
+                       SettlementRepository settlementRepository, MembershipRepository membershipRepository,
+                       MemberBalanceRepository memberBalanceRepository, BalanceSnapshotRepository balanceSnapshotRepository,
+                       ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                       @Qualifier("applicationTaskExecutor") Executor executor,
+                       @Value("${group.purge.async-threshold:10000}") long asyncThreshold,
+                       @Value("${group.purge.chunk-size:5000}") int chunkSize) {
+        this.groupRepository = groupRepository;
+        this.expenseRepository = expenseRepository;
+        this.expenseShareRepository = expenseShareRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.settlementRepository = settlementRepository;
+        this.membershipRepository = membershipRepository;
+        this.memberBalanceRepository = memberBalanceRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.executor = executor;
+        this.asyncThreshold = asyncThreshold;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return true when the ledger is too large to delete now and is purged in the background
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean delete(Long groupId) {
+        if (expenseRepository.countByGroup_Id(groupId) <= asyncThreshold) {
+            deleteAll(groupId);
+            return false;
+        }
+        membershipRepository.bulkDeleteByGroupId(groupId);
+        memberBalanceRepository.bulkDeleteByGroupIds(List.of(groupId));
+        balanceSnapshotRepository.bulkDeleteByGroupIds(List.of(groupId));
+        eventPublisher.publishEvent(new GroupPurgeRequestedEvent(groupId));
+        return true;
+    }
+
+    @TransactionalEventListener
+    public void onPurgeRequested(GroupPurgeRequestedEvent event) {
+        executor.execute(() -> purge(event.groupId()));
+    }
+
+    void purge(Long groupId) {
+        try {
+            inChunks(() -> ledgerEntryRepository.bulkDeleteChunkByGroupId(groupId, chunkSize));
+            long expenses = inChunks(() -> {
+                expenseShareRepository.bulkDeleteChunkByGroupId(groupId, chunkSize);
+                return expenseRepository.bulkDeleteChunkByGroupId(groupId, chunkSize);
+            });
+            // also catches rows written to the group while the chunks ran
+            transactionTemplate.executeWithoutResult(status -> deleteAll(groupId));
+            log.info("Purged group {} with {} expenses", groupId, expenses);
+        } catch (RuntimeException e) {
+            // the group stays detached; deleting it again resumes the purge
+            log.error("Purge of group {} failed", groupId, e);
+        }
+    }
+
+    // runs the chunk in its own transaction until it deletes nothing; returns the rows deleted
+    private long inChunks(IntSupplier chunk) {
+        long total = 0;
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> chunk.getAsInt());
+            total += deleted == null ? 0 : deleted;
+        } while (deleted != null && deleted > 0);
+        return total;
+    }
+
+    private void deleteAll(Long groupId) {
+        ledgerEntryRepository.bulkDeleteByGroupId(groupId);
+        expenseShareRepository.bulkDeleteByGroupId(groupId);
+        memberBalanceRepository.bulkDeleteByGroupIds(List.of(groupId));
+        balanceSnapshotRepository.bulkDeleteByGroupIds(List.of(groupId));
+        settlementRepository.bulkDeleteByGroupId(groupId);
+        expenseRepository.bulkDeleteByGroupId(groupId);
+        membershipRepository.bulkDeleteByGroupId(groupId);
+        groupRepository.bulkDeleteById(groupId);
+    }
+}
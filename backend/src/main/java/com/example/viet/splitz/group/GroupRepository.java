@@ -1,13 +1,37 @@
 package com.example.viet.splitz.group;
 
+import com.example.viet.splitz.configuration.CacheConfig;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public interface GroupRepository extends JpaRepository<Group, Long> {
     boolean existsByName(String name);
+    // cached groups are detached; use them for reads and as association targets only
+    @Cacheable(cacheNames = CacheConfig.GROUPS, unless = "#result == null")
     Optional<Group> findById(Long id);
+    @Query("select g.name from Group g where g.id = :id")
+    Optional<String> findNameById(Long id);
+    @Query("select g.version from Group g where g.id = :id")
+    Optional<Long> findVersionById(Long id);
+    // takes the row lock bumpVersion takes, without changing the version, and holds it until commit
+    @Modifying
+    @Query("update Group g set g.version = g.version where g.id = :id")
+    int lockById(Long id);
+    // lockById for several groups in one statement; an index scan on the primary key visits them in id order
+    @Modifying
+    @Query("update Group g set g.version = g.version where g.id in :ids")
+    int lockByIds(Collection<Long> ids);
+    @Modifying
+    @Query("update Group g set g.version = g.version + 1 where g.id = :id")
+    int bumpVersion(Long id);
+    @Modifying
+    @Query("delete from Group g where g.id = :id")
+    int bulkDeleteById(Long id);
 }
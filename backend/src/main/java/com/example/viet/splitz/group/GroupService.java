@@ -1,7 +1,14 @@
 package com.example.viet.splitz.group;
 
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.balance.BalanceService;
+import com.example.viet.splitz.balance.BalanceSnapshotService;
+import com.example.viet.splitz.configuration.CacheConfig;
+import com.example.viet.splitz.expense.ExpenseCursor;
+import com.example.viet.splitz.expense.dtos.ExpensePageDto;
 import com.example.viet.splitz.expense.dtos.ExpenseResDto;
 import com.example.viet.splitz.group.dtos.GroupIdResDto;
+import com.example.viet.splitz.group.dtos.GroupListDto;
 import com.example.viet.splitz.membership.Membership;
 import com.example.viet.splitz.membership.MembershipRepository;
 import com.example.viet.splitz.user.User;
@@ -10,6 +17,10 @@ import com.example.viet.splitz.expense.Expense;
 import com.example.viet.splitz.expense.ExpenseRepository;
 import com.example.viet.splitz.user.dtos.UserBalanceDto;
 import com.example.viet.splitz.user.dtos.UserResDto;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,8 +29,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 
 import javax.swing.text.html.Option;
 import java.lang.reflect.Member;
-import java.math.BigDecimal;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -31,15 +42,28 @@ public class GroupService {
     private final UserRepository userRepository;
     private final ExpenseRepository expenseRepository;
     private final MembershipRepository membershipRepository;
+    private final BalanceService balanceService;
+    private final CurrentUser currentUser;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GroupPurger groupPurger;
+    private final BalanceSnapshotService balanceSnapshotService;
 
-    public record GroupListDto(Long id, String name, Long members, BigDecimal yourShare){}
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 200;
 
     public GroupService(GroupRepository groupRepository, UserRepository userRepository, ExpenseRepository expenseRepository,
-                        MembershipRepository membershipRepository) {
+                        MembershipRepository membershipRepository, BalanceService balanceService, CurrentUser currentUser,
+                        ApplicationEventPublisher eventPublisher, GroupPurger groupPurger,
+                        BalanceSnapshotService balanceSnapshotService) {
         this.groupRepository = groupRepository;
         this.userRepository = userRepository;
         this.expenseRepository = expenseRepository;
         this.membershipRepository = membershipRepository;
+        this.balanceService = balanceService;
+        this.currentUser = currentUser;
+        this.eventPublisher = eventPublisher;
+        this.groupPurger = groupPurger;
+        this.balanceSnapshotService = balanceSnapshotService;
     }
 
     public Group create(String name, Authentication authentication) {
@@ -51,20 +75,27 @@ public class GroupService {
         groupRepository.save(g);
         Membership membership = new Membership();
         membership.setGroup(g);
-        membership.setUser(userRepository.findByName(authentication.getName()).orElseThrow());
+        membership.setUser(currentUser.reference(authentication));
         membership.setJoinedAt(Instant.now());
         membershipRepository.save(membership);
+        balanceService.openAccount(g, membership.getUser());
+        eventPublisher.publishEvent(new MemberAddedEvent(g.getId(), membership.getUser().getId()));
         return g;
     }
     public Boolean addMember(@PathVariable Long groupId, @RequestBody String userName){
-        Optional<User> user = userRepository.findByName(userName);
+        Optional<UserResDto> user = userRepository.findIdAndNameByName(userName);
         Optional<Group> group = groupRepository.findById(groupId);
         if (user.isPresent() && group.isPresent()){
+            Long userId = user.get().id();
+            // (group_id, user_id) is unique; adding an existing member is a no-op
+            if (membershipRepository.existsByGroupIdAndUserId(groupId, userId)) return true;
             Membership membership = new Membership();
             membership.setGroup(group.get());
-            membership.setUser(user.get());
+            membership.setUser(userRepository.getReferenceById(userId));
             membership.setJoinedAt(Instant.now());
             membershipRepository.save(membership);
+            balanceService.openAccount(group.get(), membership.getUser());
+            eventPublisher.publishEvent(new MemberAddedEvent(groupId, userId));
             return true;
         }
         return false;
@@ -73,50 +104,59 @@ public class GroupService {
 
     @Transactional(readOnly = true)
     public GroupIdResDto get(Long id) {
-        String groupName = groupRepository.findById(id).orElseThrow().getName();
-        List<User> userList = userRepository.findUserByGroupId(id);
-        List<UserResDto> userResDtoList = new ArrayList<>();
-        for (int i = 0; i < userList.size(); i++){
-            UserResDto userResDto = new UserResDto(
-                    userList.get(i).getId(),
-                    userList.get(i).getName()
-            );
-            userResDtoList.add(userResDto);
-        }
-        List<Expense> expenseList = expenseRepository.findByGroup_Id(id);
-        List<ExpenseResDto> expenseResDtoList = new ArrayList<>();
-        for (int i = 0; i < expenseList.size(); i++){
-            ExpenseResDto expenseResDto = new ExpenseResDto(
-                    expenseList.get(i).getId(),
-                    expenseList.get(i).getDescription(),
-                    expenseList.get(i).getAmount(),
-                    expenseList.get(i).getUser().getName(),
-                    expenseList.get(i).getDate()
-            );
-            expenseResDtoList.add(expenseResDto);
-        }
+        String groupName = groupRepository.findNameById(id).orElseThrow();
+        List<UserResDto> userResDtoList = userRepository.findMembersByGroupId(id);
+        List<ExpenseResDto> expenseResDtoList = expenseRepository.findExpenseResByGroupId(id);
+        List<UserBalanceDto> userBalanceDtoList = userRepository.findUsersBalanceByGroupId(id);
+        return new GroupIdResDto(id, groupName, userResDtoList, expenseResDtoList, userBalanceDtoList, null);
+    }
+
+    @Transactional(readOnly = true)
+    public GroupIdResDto getFirstPage(Long id, Integer expenseLimit) {
+        String groupName = groupRepository.findNameById(id).orElseThrow();
+        List<UserResDto> userResDtoList = userRepository.findMembersByGroupId(id);
+        ExpensePageDto page = expenses(id, null, expenseLimit);
         List<UserBalanceDto> userBalanceDtoList = userRepository.findUsersBalanceByGroupId(id);
-        return new GroupIdResDto(id, groupName, userResDtoList, expenseResDtoList, userBalanceDtoList);
+        return new GroupIdResDto(id, groupName, userResDtoList, page.items(), userBalanceDtoList, page.next());
     }
 
     @Transactional(readOnly = true)
-    public List<GroupListDto> list(String name) {
-        Long userId = userRepository.findByName(name).orElseThrow().getId();
-        List<Group> groupList = membershipRepository.findGroupByUserId(userId);
-        List<GroupListDto> groupListDtoList = new ArrayList<>();
-        for (int i = 0; i < groupList.size(); i++){
-            GroupListDto groupListDto = new GroupListDto(
-                    groupList.get(i).getId(),
-                    groupList.get(i).getName(),
-                    membershipRepository.findNumberOfMembersByGroupId(groupList.get(i).getId()),
-                    userRepository.findUserBalanceByGroupIdAndUserId(groupList.get(i).getId(), userId)
-                    );
-            groupListDtoList.add(groupListDto);
+    public ExpensePageDto expenses(Long groupId, String after, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        // fetch one extra row to know whether another page exists
+        Limit fetch = Limit.of(size + 1);
+        List<ExpenseResDto> rows;
+        if (after == null || after.isBlank()) {
+            rows = expenseRepository.findExpensePage(groupId, fetch);
+        } else {
+            ExpenseCursor cursor = ExpenseCursor.parse(after);
+            rows = expenseRepository.findExpensePageAfter(groupId, cursor.date(), cursor.id(), fetch);
         }
-        return groupListDtoList;
+        if (rows.size() <= size) return new ExpensePageDto(rows, null);
+        List<ExpenseResDto> items = rows.subList(0, size);
+        ExpenseResDto last = items.get(size - 1);
+        return new ExpensePageDto(List.copyOf(items), new ExpenseCursor(last.date(), last.id()).toString());
+    }
+
+    // current balances come from member_balance; past ones from the nearest month-end snapshot plus later rows
+    @Transactional(readOnly = true)
+    public List<UserBalanceDto> balances(Long id, LocalDate asOf) {
+        if (asOf == null) return userRepository.findUsersBalanceByGroupId(id);
+        return balanceSnapshotService.balancesAsOf(id, asOf);
+    }
+
+    @Transactional(readOnly = true)
+    public List<GroupListDto> list(Long userId) {
+        return membershipRepository.findGroupListByUserId(userId);
     }
 
-    public void delete(Long id) {
-        groupRepository.deleteById(id);
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.GROUPS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.USER_GROUPS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.DASHBOARDS, allEntries = true)
+    })
+    // true when the group is gone for its members but its ledger is still being purged
+    public boolean delete(Long id) {
+        return groupPurger.delete(id);
     }
 }
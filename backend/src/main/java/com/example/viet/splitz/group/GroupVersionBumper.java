@@ -0,0 +1,26 @@
+package com.example.viet.splitz.group;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bumps the group's version in the same transaction as the change, so a
+ * client never sees new data under an old version. Runs before the other
+ * listeners, so the change holds the group row while they act on it.
+ */
+@Component
+public class GroupVersionBumper {
+    private final GroupRepository groupRepository;
+
+    public GroupVersionBumper(GroupRepository groupRepository) {
+        this.groupRepository = groupRepository;
+    }
+
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onGroupChanged(GroupEvent event) {
+        groupRepository.bumpVersion(event.groupId());
+    }
+}
@@ -0,0 +1,3 @@
+package com.example.viet.splitz.group;
+
+public record MemberAddedEvent(Long groupId, Long userId) implements GroupEvent {}
@@ -0,0 +1,3 @@
+package com.example.viet.splitz.group;
+
+public record MemberRemovedEvent(Long groupId, Long userId) implements GroupEvent {}
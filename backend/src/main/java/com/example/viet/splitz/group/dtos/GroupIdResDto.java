@@ -6,4 +6,5 @@ import com.example.viet.splitz.user.dtos.UserResDto;
 
 import java.util.List;
 
-public record GroupIdResDto(Long id, String name, List<UserResDto> members, List<ExpenseResDto> expenses, List<UserBalanceDto> balances){}
+public record GroupIdResDto(Long id, String name, List<UserResDto> members, List<ExpenseResDto> expenses, List<UserBalanceDto> balances,
+                            String nextExpenses){}
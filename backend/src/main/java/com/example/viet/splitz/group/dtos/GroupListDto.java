@@ -0,0 +1,5 @@
+package com.example.viet.splitz.group.dtos;
+
+import java.math.BigDecimal;
+
+public record GroupListDto(Long id, String name, Long members, BigDecimal yourShare){}
@@ -0,0 +1,7 @@
+package com.example.viet.splitz.group.dtos;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record LedgerRowDto(String type, Long id, LocalDate date, String description, String paidBy, String receivedBy,
+                           BigDecimal amount) {}
@@ -1,5 +1,6 @@
 package com.example.viet.splitz.jwt;
 
+import com.example.viet.splitz.auth.AuthUser;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
@@ -38,8 +39,9 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 Claims claims = jwtService.parse(token);
                 String username = claims.getSubject();
                 if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    Long userId = claims.get(JwtService.USER_ID_CLAIM) instanceof Number n ? n.longValue() : null;
                     var auth = new UsernamePasswordAuthenticationToken(
-                            username, null, Collections.emptyList()  // no roles
+                            new AuthUser(userId, username), null, Collections.emptyList()  // no roles
                     );
                     auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
                     SecurityContextHolder.getContext().setAuthentication(auth);
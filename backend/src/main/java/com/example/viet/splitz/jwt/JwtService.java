@@ -1,51 +1,98 @@
 package com.example.viet.splitz.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.Date;
 
 @Service
 public class JwtService {
+    public static final String USER_ID_CLAIM = "uid";
 
     private final SecretKey key;
     private final long accessMinutes;
+    private final JwtParser parser;
+
+    // verified claims keyed by SHA-256 of the token; each entry expires with its token's exp,
+    // and when the cache is full the least useful entry makes room for the new one
+    private final Cache<String, Claims> verified;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private final Timer verifyTimer;
 
     public JwtService(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.access-minutes}") long accessMinutes) {
+            @Value("${jwt.access-minutes}") long accessMinutes,
+            @Value("${jwt.cache-size:10000}") int cacheSize,
+            MeterRegistry meterRegistry) {
 
         byte[] keyBytes = Decoders.BASE64.decode(secret);
         this.key = Keys.hmacShaKeyFor(keyBytes);
         this.accessMinutes = accessMinutes;
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(Expiry.creating((String digest, Claims claims) ->
+                        Duration.ofMillis(Math.max(0, claims.getExpiration().getTime() - System.currentTimeMillis()))))
+                .build();
+        this.cacheHits = Counter.builder("jwt.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.cacheMisses = Counter.builder("jwt.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.verifyTimer = Timer.builder("jwt.verify").description("Signature check and claims parsing on cache miss")
+                .register(meterRegistry);
+        Gauge.builder("jwt.cache.size", verified, Cache::estimatedSize).register(meterRegistry);
     }
 
-    public String issueAccess(String name) {
+    public String issueAccess(Long userId, String name) {
         Instant now = Instant.now();
         return Jwts.builder()
                 .subject(name)
+                .claim(USER_ID_CLAIM, userId)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(now.plus(accessMinutes, ChronoUnit.MINUTES)))
                 .signWith(key)
                 .compact();
     }
 
-    public io.jsonwebtoken.Claims parse(String jwt) {
+    public Claims parse(String jwt) {
+        String digest = digest(jwt);
+        Claims hit = verified.getIfPresent(digest);
+        if (hit != null) {
+            cacheHits.increment();
+            return hit;
+        }
+        cacheMisses.increment();
+        // throws for bad signatures and expired tokens, so only valid tokens get cached
+        Claims claims = verifyTimer.record(() -> parser.parseSignedClaims(jwt).getPayload());
+        if (claims.getExpiration() != null) verified.put(digest, claims);
+        return claims;
+    }
+
+    private static String digest(String jwt) {
         try {
-            return Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(jwt)
-                    .getPayload();
-        } catch (SignatureException e) {
-            throw e;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(jwt.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 }
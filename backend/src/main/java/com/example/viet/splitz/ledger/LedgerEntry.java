@@ -0,0 +1,111 @@
+package com.example.viet.splitz.ledger;
+
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.user.User;
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One leg of a money movement: a signed amount in cents on a member's
+ * account in a group, positive when it adds to what they owe. The legs of an
+ * expense or settlement sum to zero. Rows are only ever inserted; they go
+ * away only when their group or user is deleted.
+ */
+@Entity
+@Table(name = "ledger_entry", indexes = {
+        @Index(name = "idx_ledger_entry_group_date_source", columnList = "group_id, entry_date, source_type, source_id"),
+        @Index(name = "idx_ledger_entry_group_user", columnList = "group_id, user_id"),
+        @Index(name = "idx_ledger_entry_source", columnList = "source_type, source_id")
+})
+public class LedgerEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_seq")
+    @SequenceGenerator(name = "ledger_entry_seq", sequenceName = "ledger_entry_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "group_id", nullable = false, updatable = false)
+    private Group group;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false, updatable = false)
+    private User user;
+
+    @Column(name = "amount_minor", nullable = false, updatable = false)
+    private long amountMinor;
+
+    // plain varchar rather than a native enum type, so the native queries can compare it to a literal
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "source_type", nullable = false, updatable = false, length = 16)
+    private LedgerSourceType sourceType;
+
+    @Column(name = "source_id", nullable = false, updatable = false)
+    private Long sourceId;
+
+    // the expense or settlement date, which balances as of a date are cut on
+    @Column(name = "entry_date", nullable = false, updatable = false)
+    private LocalDate entryDate;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    public LedgerEntry() {
+    }
+
+    public LedgerEntry(Group group, User user, long amountMinor, LedgerSourceType sourceType, Long sourceId,
+                       LocalDate entryDate, Instant createdAt) {
+        this.group = group;
+        this.user = user;
+        this.amountMinor = amountMinor;
+        this.sourceType = sourceType;
+        this.sourceId = sourceId;
+        this.entryDate = entryDate;
+        this.createdAt = createdAt;
+    }
+
+    public static long minorUnits(BigDecimal amount) {
+        return amount.movePointRight(2).longValueExact();
+    }
+
+    public static BigDecimal fromMinorUnits(long amountMinor) {
+        return BigDecimal.valueOf(amountMinor, 2);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Group getGroup() {
+        return group;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public LedgerSourceType getSourceType() {
+        return sourceType;
+    }
+
+    public Long getSourceId() {
+        return sourceId;
+    }
+
+    public LocalDate getEntryDate() {
+        return entryDate;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
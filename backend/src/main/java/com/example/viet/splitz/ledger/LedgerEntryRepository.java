@@ -0,0 +1,143 @@
+package com.example.viet.splitz.ledger;
+
+import com.example.viet.splitz.activity.dtos.ActivityDto;
+import com.example.viet.splitz.group.dtos.LedgerRowDto;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+    // every expense of the user's groups (its paying leg) and the user's own settlement legs, newest first
+    @Query("""
+        SELECT new com.example.viet.splitz.activity.dtos.ActivityDto(
+          CONCAT(CASE WHEN l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.EXPENSE THEN 'expense:' ELSE 'settlement:' END, l.sourceId),
+          CASE WHEN l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.EXPENSE THEN 'expense' ELSE 'settlement' END,
+          g.id, g.name,
+          CASE WHEN l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.EXPENSE THEN u.name ELSE sp.name END,
+          CASE WHEN l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.EXPENSE THEN e.description ELSE sr.name END,
+          CASE WHEN l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.EXPENSE THEN (0 - e.amount)
+               WHEN l.amountMinor < 0 THEN (0 - s.amount) ELSE s.amount END,
+          l.entryDate
+        )
+        FROM LedgerEntry l
+        JOIN l.group g
+        JOIN l.user u
+        LEFT JOIN Expense e ON l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.EXPENSE AND e.id = l.sourceId
+        LEFT JOIN Settlement s ON l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.SETTLEMENT AND s.id = l.sourceId
+        LEFT JOIN s.payer sp
+        LEFT JOIN s.receiver sr
+        WHERE l.group IN (
+          SELECT m.group FROM Membership m WHERE m.user.id = :userId
+        )
+          AND ((l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.EXPENSE AND l.amountMinor < 0)
+            OR (l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.SETTLEMENT AND u.id = :userId))
+          AND (l.entryDate < :date OR (l.entryDate = :date AND (
+                (l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.EXPENSE AND l.sourceId < :expenseId)
+             OR (l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.SETTLEMENT AND l.sourceId < :settlementId))))
+        ORDER BY l.entryDate DESC, l.sourceType DESC, l.sourceId DESC
+        """)
+    List<ActivityDto> findActivitiesForUserBefore(Long userId, LocalDate date, Long expenseId, Long settlementId, Limit limit);
+
+    // one row per expense and settlement, taken from its paying leg
+    @Query("""
+        SELECT new com.example.viet.splitz.group.dtos.LedgerRowDto(
+          CASE WHEN l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.EXPENSE THEN 'expense' ELSE 'settlement' END,
+          l.sourceId, l.entryDate, e.description, u.name, sr.name,
+          CASE WHEN l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.EXPENSE THEN e.amount ELSE s.amount END
+        )
+        FROM LedgerEntry l
+        JOIN l.user u
+        LEFT JOIN Expense e ON l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.EXPENSE AND e.id = l.sourceId
+        LEFT JOIN Settlement s ON l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.SETTLEMENT AND s.id = l.sourceId
+        LEFT JOIN s.receiver sr
+        WHERE l.group.id = :groupId AND l.amountMinor < 0
+        ORDER BY l.entryDate, l.sourceType, l.sourceId
+        """)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<LedgerRowDto> streamLedgerRowsByGroupId(Long groupId);
+
+    // each member's change in net, in cents, from entries dated in (after, through]
+    @Query("""
+        select l.user.id, sum(l.amountMinor)
+        from LedgerEntry l
+        where l.group.id = :groupId and l.entryDate > :after and l.entryDate <= :through
+        group by l.user.id
+        """)
+    List<Object[]> sumByUser(Long groupId, LocalDate after, LocalDate through);
+
+    @Query("select min(l.entryDate) from LedgerEntry l where l.group.id = :groupId")
+    Optional<LocalDate> findFirstEntryDate(Long groupId);
+
+    // journals expenses and shares written without entries, e.g. by the dataset seeder; each leg is checked on its own
+    @Modifying
+    @Query(value = """
+        INSERT INTO ledger_entry (id, group_id, user_id, amount_minor, source_type, source_id, entry_date, created_at)
+        SELECT nextval('ledger_entry_seq'), d.group_id, d.user_id, d.amount_minor, 'EXPENSE', d.source_id, d.entry_date, CURRENT_TIMESTAMP
+        FROM (
+          SELECT e.group_id, e.user_id, -CAST(e.amount * 100 AS BIGINT) AS amount_minor, e.id AS source_id, e.date AS entry_date
+          FROM expenses e
+          WHERE NOT EXISTS (SELECT 1 FROM ledger_entry l
+                            WHERE l.source_type = 'EXPENSE' AND l.source_id = e.id AND l.amount_minor < 0)
+          UNION ALL
+          SELECT x.group_id, x.user_id, CAST(x.amount * 100 AS BIGINT), e.id, e.date
+          FROM expense_shares x JOIN expenses e ON e.id = x.expense_id
+          WHERE x.amount <> 0
+            AND NOT EXISTS (SELECT 1 FROM ledger_entry l
+                            WHERE l.source_type = 'EXPENSE' AND l.source_id = e.id AND l.user_id = x.user_id AND l.amount_minor > 0)
+        ) d
+        """, nativeQuery = true)
+    int appendMissingExpenseEntries();
+
+    @Modifying
+    @Query(value = """
+        INSERT INTO ledger_entry (id, group_id, user_id, amount_minor, source_type, source_id, entry_date, created_at)
+        SELECT nextval('ledger_entry_seq'), d.group_id, d.user_id, d.amount_minor, 'SETTLEMENT', d.source_id, d.entry_date, CURRENT_TIMESTAMP
+        FROM (
+          SELECT s.group_id, s.payer_id AS user_id, -CAST(s.amount * 100 AS BIGINT) AS amount_minor, s.id AS source_id, s.date AS entry_date
+          FROM settlement s
+          WHERE NOT EXISTS (SELECT 1 FROM ledger_entry l
+                            WHERE l.source_type = 'SETTLEMENT' AND l.source_id = s.id AND l.amount_minor < 0)
+          UNION ALL
+          SELECT s.group_id, s.receiver_id, CAST(s.amount * 100 AS BIGINT), s.id, s.date
+          FROM settlement s
+          WHERE NOT EXISTS (SELECT 1 FROM ledger_entry l
+                            WHERE l.source_type = 'SETTLEMENT' AND l.source_id = s.id AND l.amount_minor > 0)
+        ) d
+        """, nativeQuery = true)
+    int appendMissingSettlementEntries();
+
+    @Modifying
+    @Query("delete from LedgerEntry l where l.group.id = :groupId")
+    int bulkDeleteByGroupId(Long groupId);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM ledger_entry
+            WHERE id IN (SELECT id FROM ledger_entry WHERE group_id = :groupId ORDER BY id LIMIT :limit)
+            """, nativeQuery = true)
+    int bulkDeleteChunkByGroupId(Long groupId, int limit);
+
+    // every leg of the given expenses and of the user's settlements, so what is left still sums to zero per source;
+    // run before those are deleted
+    @Modifying
+    @Query("""
+        delete from LedgerEntry l
+        where (l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.EXPENSE and l.sourceId in :expenseIds)
+           or (l.sourceType = com.example.viet.splitz.ledger.LedgerSourceType.SETTLEMENT
+               and l.sourceId in (select s.id from Settlement s where s.payer.id = :userId or s.receiver.id = :userId))
+        """)
+    int bulkDeleteByExpenseIdsAndUserId(Collection<Long> expenseIds, Long userId);
+}
@@ -0,0 +1,68 @@
+package com.example.viet.splitz.ledger;
+
+import com.example.viet.splitz.expense.Expense;
+import com.example.viet.splitz.expense.ExpenseShare;
+import com.example.viet.splitz.settlement.Settlement;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.example.viet.splitz.ledger.LedgerEntry.minorUnits;
+
+/**
+ * Appends the legs of new expenses and settlements to the ledger_entry
+ * journal, one saveAll (so one JDBC batch) per call. Like BalanceService it
+ * runs inside the caller's transaction, so entries commit with their source.
+ */
+@Service
+public class LedgerService {
+    private final LedgerEntryRepository ledgerEntryRepository;
+
+    public LedgerService(LedgerEntryRepository ledgerEntryRepository) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+    }
+
+    // the payer is credited the whole amount, each participant is debited their share
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordExpenses(Collection<Expense> expenses, Collection<ExpenseShare> shares) {
+        Instant now = Instant.now();
+        List<LedgerEntry> entries = new ArrayList<>(expenses.size() + shares.size());
+        for (Expense expense : expenses) {
+            entries.add(new LedgerEntry(expense.getGroup(), expense.getUser(), -minorUnits(expense.getAmount()),
+                    LedgerSourceType.EXPENSE, expense.getId(), expense.getDate(), now));
+        }
+        for (ExpenseShare share : shares) {
+            long owed = minorUnits(share.getAmount());
+            if (owed == 0) continue;
+            Expense expense = share.getExpense();
+            entries.add(new LedgerEntry(share.getGroup(), share.getUser(), owed,
+                    LedgerSourceType.EXPENSE, expense.getId(), expense.getDate(), now));
+        }
+        ledgerEntryRepository.saveAll(entries);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordSettlements(Collection<Settlement> settlements) {
+        Instant now = Instant.now();
+        List<LedgerEntry> entries = new ArrayList<>(settlements.size() * 2);
+        for (Settlement settlement : settlements) {
+            long amount = minorUnits(settlement.getAmount());
+            entries.add(new LedgerEntry(settlement.getGroup(), settlement.getPayer(), -amount,
+                    LedgerSourceType.SETTLEMENT, settlement.getId(), settlement.getDate(), now));
+            entries.add(new LedgerEntry(settlement.getGroup(), settlement.getReceiver(), amount,
+                    LedgerSourceType.SETTLEMENT, settlement.getId(), settlement.getDate(), now));
+        }
+        ledgerEntryRepository.saveAll(entries);
+    }
+
+    // journals rows inserted around the services; returns the number of entries added
+    @Transactional(propagation = Propagation.MANDATORY)
+    public int appendMissing() {
+        return ledgerEntryRepository.appendMissingExpenseEntries() + ledgerEntryRepository.appendMissingSettlementEntries();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.viet.splitz.ledger;
+
+// stored by name; EXPENSE sorts before SETTLEMENT, which is the ledger order on a shared date
+public enum LedgerSourceType {
+    EXPENSE,
+    SETTLEMENT
+}
@@ -9,10 +9,13 @@ import org.hibernate.annotations.CollectionIdMutability;
 import java.time.Instant;
 
 @Entity
-@Table(name = "group_members")
+@Table(name = "group_members",
+        uniqueConstraints = @UniqueConstraint(name = "uk_group_members_group_user", columnNames = {"group_id", "user_id"}),
+        indexes = @Index(name = "idx_group_members_user", columnList = "user_id"))
 public class Membership {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "group_members_seq")
+    @SequenceGenerator(name = "group_members_seq", sequenceName = "group_members_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
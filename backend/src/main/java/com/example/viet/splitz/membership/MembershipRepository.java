@@ -1,49 +1,96 @@
 package com.example.viet.splitz.membership;
 
+import com.example.viet.splitz.configuration.CacheConfig;
 import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.group.dtos.GroupListDto;
 import com.example.viet.splitz.user.dtos.UserBalanceDto;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface MembershipRepository extends JpaRepository<Membership, Long> {
+    // every new membership (group creation, addMember) changes the member count and the user's group list
+    @CacheEvict(cacheNames = CacheConfig.USER_GROUPS, key = "#p0.user.id")
+    <S extends Membership> S save(S membership);
+
+    // spelled out: the derived query joins groups and users instead of reading the membership's own columns
+    @Query("select count(m) > 0 from Membership m where m.group.id = :groupId and m.user.id = :userId")
+    boolean existsByGroupIdAndUserId(Long groupId, Long userId);
+
+    @Cacheable(CacheConfig.USER_GROUPS)
     @Query("""
             select m.group
             from Membership m
             where m.user.id = :userId
             """)
     List<Group> findGroupByUserId(Long userId);
+
+    @Query("select m.group.id from Membership m where m.user.id = :userId")
+    List<Long> findGroupIdsByUserId(Long userId);
     @Query("""
-            select count(*)
+            select m.user.id
             from Membership m
             where m.group.id = :groupId
             """)
-    Long findNumberOfMembersByGroupId(Long groupId);
+    List<Long> findUserIdsByGroupId(Long groupId);
+    @Query("""
+            select distinct m.user.id
+            from Membership m
+            where m.group.id in :groupIds
+            """)
+    List<Long> findUserIdsByGroupIds(Collection<Long> groupIds);
+
+    @Query("""
+            SELECT new com.example.viet.splitz.group.dtos.GroupListDto(
+              g.id,
+              g.name,
+              (SELECT COUNT(m2) FROM Membership m2 WHERE m2.group = g),
+              (
+                COALESCE(b.owed, 0)
+                - COALESCE(b.paid, 0)
+                + COALESCE(b.received, 0)
+                - COALESCE(b.sent, 0)
+              )
+            )
+            FROM Membership m
+            JOIN m.group g
+            LEFT JOIN MemberBalance b ON b.group = g AND b.user = m.user
+            WHERE m.user.id = :userId
+            ORDER BY g.id
+            """)
+    List<GroupListDto> findGroupListByUserId(Long userId);
 
     @Query("""
             SELECT new com.example.viet.splitz.user.dtos.UserBalanceDto(
               u.id,
               u.name,
               SUM(
-                - COALESCE( (SELECT SUM(e.amount) FROM Expense e
-                          WHERE e.group = m.group AND e.user = u), 0)
-                + (
-                    (SELECT COALESCE(SUM(e2.amount), 0) FROM Expense e2
-                     WHERE e2.group = m.group)
-                    / (SELECT COUNT(m2) FROM Membership m2 WHERE m2.group = m.group)
-                  )
-                + COALESCE( (SELECT SUM(s.amount) FROM Settlement s
-                            WHERE s.group = m.group AND s.receiver = u), 0)
-                - COALESCE( (SELECT SUM(s2.amount) FROM Settlement s2
-                            WHERE s2.group = m.group AND s2.payer = u), 0)
+                COALESCE(b.owed, 0)
+                - COALESCE(b.paid, 0)
+                + COALESCE(b.received, 0)
+                - COALESCE(b.sent, 0)
               )
             )
             FROM Membership m
             JOIN m.user u
+            LEFT JOIN MemberBalance b ON b.group = m.group AND b.user = u
             WHERE u.id = :userId
             GROUP BY u.id, u.name
             """)
     Optional<UserBalanceDto> sumUserNetAcrossGroups(Long userId);
+
+    // callers evict USER_GROUPS themselves
+    @Modifying
+    @Query("delete from Membership m where m.group.id = :groupId")
+    int bulkDeleteByGroupId(Long groupId);
+
+    @Modifying
+    @Query("delete from Membership m where m.user.id = :userId")
+    int bulkDeleteByUserId(Long userId);
 }
@@ -0,0 +1,199 @@
+package com.example.viet.splitz.seed;
+
+import com.example.viet.splitz.balance.BalanceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Fills the database with a synthetic dataset for local load tests. Users
+ * are named seed-user-0..N-1 and share one password. Group sizes, which
+ * users join many groups and which groups are busy all follow a Zipf
+ * distribution, so a few groups carry most of the expenses. Rows go in
+ * through batched JDBC; balances are rebuilt at the end. Runs once under the
+ * "seed" profile and is skipped when seed-user-0 already exists.
+ */
+@Component
+@Profile("seed")
+public class DatasetSeeder implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(DatasetSeeder.class);
+    static final String USER_PREFIX = "seed-user-";
+    static final String GROUP_PREFIX = "seed-group-";
+    private static final String[] DESCRIPTIONS = {"Dinner", "Groceries", "Taxi", "Hotel", "Coffee", "Tickets", "Fuel", "Rent", "Drinks", "Snacks"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final BalanceService balanceService;
+    private final int users;
+    private final int groups;
+    private final int expenses;
+    private final int settlements;
+    private final int maxGroupSize;
+    private final int batchSize;
+    private final double skew;
+    private final long randomSeed;
+    private final String password;
+
+    public DatasetSeeder(JdbcTemplate jdbcTemplate, PasswordEncoder passwordEncoder, BalanceService balanceService,
+                         @Value("${seed.users:10000}") int users,
+                         @Value("${seed.groups:2000}") int groups,
+                         @Value("${seed.expenses:1000000}") int expenses,
+                         @Value("${seed.settlements:100000}") int settlements,
+                         @Value("${seed.max-group-size:30}") int maxGroupSize,
+                         @Value("${seed.batch-size:1000}") int batchSize,
+                         @Value("${seed.skew:1.1}") double skew,
+                         @Value("${seed.random-seed:42}") long randomSeed,
+                         @Value("${seed.password:password}") String password) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.balanceService = balanceService;
+        this.users = users;
+        this.groups = groups;
+        this.expenses = expenses;
+        this.settlements = settlements;
+        this.maxGroupSize = Math.max(2, Math.min(maxGroupSize, users));
+        this.batchSize = batchSize;
+        this.skew = skew;
+        this.randomSeed = randomSeed;
+        this.password = password;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users WHERE name = ?", Integer.class, USER_PREFIX + 0);
+        if (existing != null && existing > 0) {
+            log.info("Seed data already present, skipping");
+            return;
+        }
+        Random random = new Random(randomSeed);
+        long started = System.nanoTime();
+
+        String hash = passwordEncoder.encode(password);
+        batch("INSERT INTO users (name, password) VALUES (?, ?)", users, i -> new Object[]{USER_PREFIX + i, hash});
+        long[] userIds = ids("SELECT id, name FROM users WHERE name LIKE 'seed-user-%'", USER_PREFIX, users);
+        batch("INSERT INTO groups (name, version) VALUES (?, 0)", groups, i -> new Object[]{GROUP_PREFIX + i});
+        long[] groupIds = ids("SELECT id, name FROM groups WHERE name LIKE 'seed-group-%'", GROUP_PREFIX, groups);
+        log.info("Seeded {} users and {} groups", users, groups);
+
+        long[][] members = memberships(random, userIds, groupIds.length);
+        List<Object[]> memberRows = new ArrayList<>();
+        Timestamp joinedAt = Timestamp.from(Instant.now());
+        for (int g = 0; g < groupIds.length; g++) {
+            for (long userId : members[g]) memberRows.add(new Object[]{groupIds[g], userId, joinedAt});
+        }
+        batch("INSERT INTO group_members (id, group_id, user_id, joined_at) VALUES (nextval('group_members_seq'), ?, ?, ?)",
+                memberRows.size(), memberRows::get);
+        log.info("Seeded {} memberships", memberRows.size());
+
+        Zipf busyGroups = new Zipf(groupIds.length, skew);
+        LocalDate today = LocalDate.now();
+        batch("INSERT INTO expenses (id, description, amount, user_id, date, group_id) VALUES (nextval('expenses_seq'), ?, ?, ?, ?, ?)",
+                expenses, i -> {
+                    int g = busyGroups.sample(random);
+                    long payer = members[g][random.nextInt(members[g].length)];
+                    return new Object[]{DESCRIPTIONS[random.nextInt(DESCRIPTIONS.length)] + " " + i, amount(random), payer,
+                            Date.valueOf(today.minusDays(random.nextInt(3 * 365))), groupIds[g]};
+                });
+        log.info("Seeded {} expenses", expenses);
+
+        batch("INSERT INTO settlement (id, payer_id, group_id, receiver_id, date, amount) VALUES (nextval('settlement_seq'), ?, ?, ?, ?, ?)",
+                settlements, i -> {
+                    int g = busyGroups.sample(random);
+                    long[] m = members[g];
+                    int payer = random.nextInt(m.length);
+                    int receiver = (payer + 1 + random.nextInt(m.length - 1)) % m.length;
+                    return new Object[]{m[payer], groupIds[g], m[receiver], Date.valueOf(today.minusDays(random.nextInt(3 * 365))),
+                            amount(random)};
+                });
+        log.info("Seeded {} settlements", settlements);
+
+        int balances = balanceService.rebuild();
+        log.info("Rebuilt {} balances; seeding took {} s", balances, (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    // a few users belong to many groups; every group has at least two members
+    private long[][] memberships(Random random, long[] userIds, int groupCount) {
+        Zipf groupSize = new Zipf(maxGroupSize - 1, skew);
+        Zipf popularUsers = new Zipf(userIds.length, skew);
+        long[][] members = new long[groupCount][];
+        for (int g = 0; g < groupCount; g++) {
+            int size = 2 + groupSize.sample(random);
+            Set<Long> chosen = new LinkedHashSet<>();
+            while (chosen.size() < size) chosen.add(userIds[popularUsers.sample(random)]);
+            members[g] = chosen.stream().mapToLong(Long::longValue).toArray();
+        }
+        return members;
+    }
+
+    // mostly small amounts with a long tail, in cents
+    private static BigDecimal amount(Random random) {
+        long cents = Math.max(100, Math.round(Math.exp(7 + random.nextGaussian() * 1.2)));
+        return BigDecimal.valueOf(Math.min(cents, 99_999_999L), 2);
+    }
+
+    private long[] ids(String sql, String prefix, int count) {
+        Map<Integer, Long> byIndex = new HashMap<>(count * 2);
+        jdbcTemplate.query(sql, rs -> {
+            byIndex.put(Integer.parseInt(rs.getString("name").substring(prefix.length())), rs.getLong("id"));
+        });
+        long[] ids = new long[count];
+        for (int i = 0; i < count; i++) ids[i] = byIndex.get(i);
+        return ids;
+    }
+
+    private void batch(String sql, int rows, Row row) {
+        List<Object[]> buffer = new ArrayList<>(batchSize);
+        for (int i = 0; i < rows; i++) {
+            buffer.add(row.values(i));
+            if (buffer.size() == batchSize) {
+                jdbcTemplate.batchUpdate(sql, buffer);
+                buffer.clear();
+            }
+        }
+        if (!buffer.isEmpty()) jdbcTemplate.batchUpdate(sql, buffer);
+    }
+
+    private interface Row {
+        Object[] values(int index);
+    }
+
+    // samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^s
+    static final class Zipf {
+        private final double[] cumulative;
+
+        Zipf(int n, double s) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int k = 0; k < n; k++) {
+                sum += 1 / Math.pow(k + 1, s);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) cumulative[k] /= sum;
+        }
+
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.viet.splitz.settlement;
+
+import java.util.Arrays;
+
+/**
+ * Turns per-member net balances (in cents, positive = owes money) into a short
+ * list of transfers. Greedy: always match the largest debtor with the largest
+ * creditor, so every step clears at least one member and the plan has at most
+ * n - 1 transfers. Works on primitive arrays only; two binary heaps keep each
+ * step O(log n).
+ */
+public final class DebtSimplifier {
+
+    public record Plan(int[] from, int[] to, long[] cents, int size) {}
+
+    private DebtSimplifier() {
+    }
+
+    public static Plan simplify(long[] net) {
+        int n = net.length;
+        int[] debtors = new int[n];
+        int[] creditors = new int[n];
+        long[] owes = new long[n];
+        long[] owed = new long[n];
+        int debtorCount = 0, creditorCount = 0;
+        for (int i = 0; i < n; i++) {
+            if (net[i] > 0) {
+                owes[i] = net[i];
+                debtorCount = push(debtors, debtorCount, owes, i);
+            } else if (net[i] < 0) {
+                owed[i] = -net[i];
+                creditorCount = push(creditors, creditorCount, owed, i);
+            }
+        }
+
+        int[] from = new int[Math.max(n - 1, 0)];
+        int[] to = new int[from.length];
+        long[] cents = new long[from.length];
+        int size = 0;
+        while (debtorCount > 0 && creditorCount > 0 && size < from.length) {
+            int d = debtors[0];
+            int c = creditors[0];
+            debtorCount = pop(debtors, debtorCount, owes);
+            creditorCount = pop(creditors, creditorCount, owed);
+            long amount = Math.min(owes[d], owed[c]);
+            from[size] = d;
+            to[size] = c;
+            cents[size] = amount;
+            size++;
+            owes[d] -= amount;
+            owed[c] -= amount;
+            if (owes[d] > 0) debtorCount = push(debtors, debtorCount, owes, d);
+            if (owed[c] > 0) creditorCount = push(creditors, creditorCount, owed, c);
+        }
+        return new Plan(Arrays.copyOf(from, size), Arrays.copyOf(to, size), Arrays.copyOf(cents, size), size);
+    }
+
+    // max-heap of member indices ordered by key[index]
+    private static int push(int[] heap, int count, long[] key, int member) {
+        int i = count++;
+        heap[i] = member;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (key[heap[parent]] >= key[heap[i]]) break;
+            swap(heap, parent, i);
+            i = parent;
+        }
+        return count;
+    }
+
+    private static int pop(int[] heap, int count, long[] key) {
+        heap[0] = heap[--count];
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= count) break;
+            int right = left + 1;
+            int largest = right < count && key[heap[right]] > key[heap[left]] ? right : left;
+            if (key[heap[i]] >= key[heap[largest]]) break;
+            swap(heap, i, largest);
+            i = largest;
+        }
+        return count;
+    }
+
+    private static void swap(int[] heap, int a, int b) {
+        int tmp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = tmp;
+    }
+}
@@ -9,9 +9,15 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_settlement_group_date_id", columnList = "group_id, date, id"),
+        @Index(name = "idx_settlement_payer", columnList = "payer_id"),
+        @Index(name = "idx_settlement_receiver", columnList = "receiver_id")
+})
 public class Settlement {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "settlement_seq")
+    @SequenceGenerator(name = "settlement_seq", sequenceName = "settlement_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY, optional = false)
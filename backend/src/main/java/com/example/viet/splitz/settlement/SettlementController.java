@@ -1,7 +1,10 @@
 package com.example.viet.splitz.settlement;
 
+import com.example.viet.splitz.settlement.dtos.TransferDto;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -9,6 +12,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 @RestController
 @RequestMapping("/settlement")
@@ -26,4 +30,14 @@ public class SettlementController {
         settlementService.addSettlement(authentication, settleReqDto);
         return ResponseEntity.ok("Success");
     }
+
+    @GetMapping("/plan/{groupId}")
+    public List<TransferDto> getPlan(Authentication authentication, @PathVariable Long groupId){
+        return settlementService.plan(authentication, groupId);
+    }
+
+    @PostMapping("/plan/{groupId}")
+    public List<TransferDto> executePlan(Authentication authentication, @PathVariable Long groupId){
+        return settlementService.executePlan(authentication, groupId);
+    }
 }
@@ -0,0 +1,9 @@
+package com.example.viet.splitz.settlement;
+
+import com.example.viet.splitz.group.GroupEvent;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record SettlementCreatedEvent(Long groupId, Long settlementId, Long payerId, Long receiverId, BigDecimal amount,
+                                     LocalDate date) implements GroupEvent {}
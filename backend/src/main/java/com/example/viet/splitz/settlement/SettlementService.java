@@ -1,28 +1,56 @@
 package com.example.viet.splitz.settlement;
 
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.balance.BalanceService;
 import com.example.viet.splitz.group.Group;
 import com.example.viet.splitz.group.GroupRepository;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.settlement.dtos.TransferDto;
 import com.example.viet.splitz.user.User;
 import com.example.viet.splitz.user.UserRepository;
+import com.example.viet.splitz.user.dtos.UserBalanceDto;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 @Service
 public class SettlementService {
     private final SettlementRepository settlementRepository;
     private final UserRepository userRepository;
     private final GroupRepository groupRepository;
+    private final BalanceService balanceService;
+    private final LedgerService ledgerService;
+    private final CurrentUser currentUser;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public SettlementService(SettlementRepository settlementRepository, UserRepository userRepository, GroupRepository groupRepository) {
+    public SettlementService(SettlementRepository settlementRepository, UserRepository userRepository, GroupRepository groupRepository,
+                             BalanceService balanceService, LedgerService ledgerService, CurrentUser currentUser,
+                             ApplicationEventPublisher eventPublisher) {
         this.settlementRepository = settlementRepository;
         this.userRepository = userRepository;
         this.groupRepository = groupRepository;
+        this.balanceService = balanceService;
+        this.ledgerService = ledgerService;
+        this.currentUser = currentUser;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional
     public void addSettlement(Authentication authentication, SettlementController.SettleReqDto settleReqDto){
-        User payer = userRepository.findByName(authentication.getName()).orElseThrow();
+        // the journal keeps whole cents
+        if (settleReqDto.amount().stripTrailingZeros().scale() > 2) throw new IllegalArgumentException("amount must have at most 2 decimals");
+        User payer = currentUser.reference(authentication);
         User receiver = userRepository.findById(settleReqDto.receiverId()).orElseThrow();
         Group group = groupRepository.findById(settleReqDto.groupId()).orElseThrow();
+        // before the first balance write, see BalanceService
+        groupRepository.lockById(group.getId());
         Settlement settlement = new Settlement();
         settlement.setAmount(settleReqDto.amount());
         settlement.setDate(settleReqDto.date());
@@ -30,5 +58,56 @@ public class SettlementService {
         settlement.setPayer(payer);
         settlement.setReceiver(receiver);
         settlementRepository.save(settlement);
+        ledgerService.recordSettlements(List.of(settlement));
+        balanceService.recordSettlement(group, payer, receiver, settlement.getAmount());
+        eventPublisher.publishEvent(new SettlementCreatedEvent(group.getId(), settlement.getId(), payer.getId(), receiver.getId(),
+                settlement.getAmount(), settlement.getDate()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<TransferDto> plan(Authentication authentication, Long groupId) {
+        currentUser.requireMember(authentication, groupId);
+        return plan(groupId);
+    }
+
+    private List<TransferDto> plan(Long groupId) {
+        List<UserBalanceDto> balances = userRepository.findUsersBalanceByGroupId(groupId);
+        long[] net = new long[balances.size()];
+        for (int i = 0; i < net.length; i++) {
+            BigDecimal value = balances.get(i).net() == null ? BigDecimal.ZERO : balances.get(i).net();
+            net[i] = value.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+        }
+        DebtSimplifier.Plan plan = DebtSimplifier.simplify(net);
+        List<TransferDto> transfers = new ArrayList<>(plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            UserBalanceDto from = balances.get(plan.from()[i]);
+            UserBalanceDto to = balances.get(plan.to()[i]);
+            transfers.add(new TransferDto(from.userId(), from.name(), to.userId(), to.name(), BigDecimal.valueOf(plan.cents()[i], 2)));
+        }
+        return transfers;
+    }
+
+    @Transactional
+    public List<TransferDto> executePlan(Authentication authentication, Long groupId) {
+        currentUser.requireMember(authentication, groupId);
+        // one execution at a time per group: a second request waits here, then plans from the balances the first one left
+        groupRepository.lockById(groupId);
+        List<TransferDto> transfers = plan(groupId);
+        Group group = groupRepository.getReferenceById(groupId);
+        LocalDate today = LocalDate.now();
+        List<Settlement> settlements = new ArrayList<>(transfers.size());
+        for (TransferDto transfer : transfers) {
+            User payer = userRepository.getReferenceById(transfer.fromUserId());
+            User receiver = userRepository.getReferenceById(transfer.toUserId());
+            settlements.add(new Settlement(null, payer, group, receiver, today, transfer.amount()));
+        }
+        settlementRepository.saveAll(settlements);
+        ledgerService.recordSettlements(settlements);
+        for (Settlement settlement : settlements) {
+            balanceService.recordSettlement(group, settlement.getPayer(), settlement.getReceiver(), settlement.getAmount());
+            eventPublisher.publishEvent(new SettlementCreatedEvent(groupId, settlement.getId(), settlement.getPayer().getId(),
+                    settlement.getReceiver().getId(), settlement.getAmount(), settlement.getDate()));
+        }
+        return transfers;
     }
 }
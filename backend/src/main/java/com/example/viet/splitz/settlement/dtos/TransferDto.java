@@ -0,0 +1,5 @@
+package com.example.viet.splitz.settlement.dtos;
+
+import java.math.BigDecimal;
+
+public record TransferDto(Long fromUserId, String fromName, Long toUserId, String toName, BigDecimal amount) {}
@@ -0,0 +1,67 @@
+package com.example.viet.splitz.user;
+
+import com.example.viet.splitz.configuration.CacheConfig;
+import com.example.viet.splitz.group.GroupEvent;
+import com.example.viet.splitz.membership.MembershipRepository;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Drops the cached dashboard of every member of a group that changed. Inside
+ * a transaction the changed groups are collected and their members looked up
+ * once, just before commit, however many events the transaction published;
+ * the transaction-aware cache holds the evictions back until it commits.
+ */
+@Component
+public class DashboardCacheInvalidator {
+    private final CacheManager cacheManager;
+    private final MembershipRepository membershipRepository;
+
+    public DashboardCacheInvalidator(CacheManager cacheManager, MembershipRepository membershipRepository) {
+        this.cacheManager = cacheManager;
+        this.membershipRepository = membershipRepository;
+    }
+
+    @EventListener
+    public void onGroupChanged(GroupEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictMembers(Set.of(event.groupId()));
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Set<Long> changed = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (changed == null) {
+            Set<Long> groupIds = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, groupIds);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    evictMembers(groupIds);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DashboardCacheInvalidator.this);
+                }
+            });
+            changed = groupIds;
+        }
+        changed.add(event.groupId());
+    }
+
+    private void evictMembers(Collection<Long> groupIds) {
+        Cache dashboards = cacheManager.getCache(CacheConfig.DASHBOARDS);
+        if (dashboards == null) return;
+        for (Long userId : membershipRepository.findUserIdsByGroupIds(groupIds)) {
+            dashboards.evict(userId);
+        }
+    }
+}
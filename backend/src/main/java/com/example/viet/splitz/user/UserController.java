@@ -1,9 +1,15 @@
 package com.example.viet.splitz.user;
 
+import com.example.viet.splitz.auth.CurrentUser;
 import com.example.viet.splitz.user.dtos.UserDashboardDto;
+import com.example.viet.splitz.user.dtos.UserDashboardSnapshot;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.awt.desktop.SystemSleepEvent;
 
@@ -11,9 +17,11 @@ import java.awt.desktop.SystemSleepEvent;
 @RequestMapping("/user")
 public class UserController {
     private UserService userService;
+    private final CurrentUser currentUser;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, CurrentUser currentUser) {
         this.userService = userService;
+        this.currentUser = currentUser;
     }
 
     @PostMapping
@@ -23,13 +31,24 @@ public class UserController {
     }
 
     @GetMapping("/dashboard")
-    public ResponseEntity<UserDashboardDto> getUserDashboard(Authentication authentication){
-        return ResponseEntity.ok(userService.getUserDashboard(authentication));
+    public ResponseEntity<UserDashboardDto> getUserDashboard(Authentication authentication, WebRequest request){
+        // a cached snapshot answers If-None-Match without touching the database
+        UserDashboardSnapshot snapshot = userService.getDashboardSnapshot(currentUser.id(authentication));
+        if (request.checkNotModified(snapshot.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag()).build();
+        }
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(snapshot.etag())
+                .body(snapshot.dashboard());
     }
 
     @PostMapping("/delete")
-    public ResponseEntity<String> createNewUser(@RequestBody Long id){
-        System.out.println(id);
+    public ResponseEntity<String> createNewUser(@RequestBody Long id, Authentication authentication){
+        // users can only delete themselves
+        if (!id.equals(currentUser.id(authentication))) {
+            throw new AccessDeniedException("Cannot delete user " + id);
+        }
         userService.deleteUserById(id);
         return ResponseEntity.ok("Delete User Succeeded");
     }
@@ -0,0 +1,87 @@
+package com.example.viet.splitz.user;
+
+import com.example.viet.splitz.balance.BalanceService;
+import com.example.viet.splitz.balance.BalanceSnapshotRepository;
+import com.example.viet.splitz.balance.MemberBalanceRepository;
+import com.example.viet.splitz.expense.ExpenseRepository;
+import com.example.viet.splitz.expense.ExpenseShareRepository;
+import com.example.viet.splitz.group.GroupRepository;
+import com.example.viet.splitz.group.MemberRemovedEvent;
+import com.example.viet.splitz.ledger.LedgerEntryRepository;
+import com.example.viet.splitz.membership.MembershipRepository;
+import com.example.viet.splitz.settlement.SettlementRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Deletes a user with set-based statements in foreign-key order. Every
+ * expense the user paid or has a share of and every settlement they sent or
+ * received goes with them, whole: all its shares and all its journal
+ * entries, so each source left in the journal still sums to zero and so
+ * does each group. Balances of every group they were in are then rebuilt
+ * from what is left of the journal.
+ */
+@Component
+public class UserPurger {
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+    private final ExpenseRepository expenseRepository;
+    private final ExpenseShareRepository expenseShareRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final SettlementRepository settlementRepository;
+    private final MembershipRepository membershipRepository;
+    private final MemberBalanceRepository memberBalanceRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final BalanceService balanceService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public UserPurger(UserRepository userRepository, GroupRepository groupRepository, ExpenseRepository expenseRepository,
+                      ExpenseShareRepository expenseShareRepository, LedgerEntryRepository ledgerEntryRepository,
+                      SettlementRepository settlementRepository, MembershipRepository membershipRepository,
+                      MemberBalanceRepository memberBalanceRepository, BalanceSnapshotRepository balanceSnapshotRepository,
+                      BalanceService balanceService, ApplicationEventPublisher eventPublisher) {
+        this.userRepository = userRepository;
+        this.groupRepository = groupRepository;
+        this.expenseRepository = expenseRepository;
+        this.expenseShareRepository = expenseShareRepository;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.settlementRepository = settlementRepository;
+        this.membershipRepository = membershipRepository;
+        this.memberBalanceRepository = memberBalanceRepository;
+        this.balanceSnapshotRepository = balanceSnapshotRepository;
+        this.balanceService = balanceService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void delete(Long userId) {
+        Set<Long> groupIds = new TreeSet<>(membershipRepository.findGroupIdsByUserId(userId));
+        groupIds.addAll(memberBalanceRepository.findGroupIdsByUserId(userId));
+
+        // before any balance row, like every other change to these groups
+        if (!groupIds.isEmpty()) groupRepository.lockByIds(groupIds);
+
+        // read before the shares that identify them are gone
+        List<Long> expenseIds = expenseRepository.findIdsByParticipant(userId);
+        // before the settlements it looks up
+        ledgerEntryRepository.bulkDeleteByExpenseIdsAndUserId(expenseIds, userId);
+        settlementRepository.bulkDeleteByUserId(userId);
+        if (!expenseIds.isEmpty()) {
+            expenseShareRepository.bulkDeleteByExpenseIds(expenseIds);
+            expenseRepository.deleteAllByIdInBatch(expenseIds);
+        }
+        membershipRepository.bulkDeleteByUserId(userId);
+        // drops the user's balance rows along with the rest of each group's
+        balanceService.rebuild(groupIds);
+        // every checkpoint of those groups changed; the monthly job writes them again
+        if (!groupIds.isEmpty()) balanceSnapshotRepository.bulkDeleteByGroupIds(groupIds);
+        userRepository.bulkDeleteById(userId);
+        for (Long groupId : groupIds) eventPublisher.publishEvent(new MemberRemovedEvent(groupId, userId));
+    }
+}
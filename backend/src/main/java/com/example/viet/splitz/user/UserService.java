@@ -2,10 +2,12 @@ package com.example.viet.splitz.user;
 
 
 import com.example.viet.splitz.user.dtos.UserDashboardDto;
+import com.example.viet.splitz.user.dtos.UserDashboardSnapshot;
 import org.springframework.security.core.Authentication;
 
 public interface UserService {
     void createNewUser(User user);
     void deleteUserById(Long id);
     UserDashboardDto getUserDashboard(Authentication authentication);
+    UserDashboardSnapshot getDashboardSnapshot(Long userId);
 }
@@ -0,0 +1,4 @@
+package com.example.viet.splitz.user.dtos;
+
+// etag is a digest of the serialized dashboard, so an unchanged dashboard keeps its tag across rebuilds
+public record UserDashboardSnapshot(UserDashboardDto dashboard, String etag) {}
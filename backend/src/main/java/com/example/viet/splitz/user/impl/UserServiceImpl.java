@@ -2,21 +2,41 @@ package com.example.viet.splitz.user.impl;
 
 import com.example.viet.splitz.activity.ActivityService;
 import com.example.viet.splitz.activity.dtos.ActivityDto;
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.configuration.CacheConfig;
 import com.example.viet.splitz.group.Group;
 import com.example.viet.splitz.group.GroupRepository;
 import com.example.viet.splitz.membership.Membership;
 import com.example.viet.splitz.membership.MembershipRepository;
 import com.example.viet.splitz.user.User;
+import com.example.viet.splitz.user.UserPurger;
 import com.example.viet.splitz.user.UserRepository;
 import com.example.viet.splitz.user.UserService;
 import com.example.viet.splitz.user.dtos.UserBalanceDto;
 import com.example.viet.splitz.user.dtos.UserDashboardDto;
+import com.example.viet.splitz.user.dtos.UserDashboardSnapshot;
+import com.example.viet.splitz.util.FanOut;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.constraints.Null;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 
 @Service
@@ -24,11 +44,22 @@ public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final ActivityService activityService;
     private final MembershipRepository membershipRepository;
+    private final UserPurger userPurger;
+    private final CurrentUser currentUser;
+    private final ObjectMapper objectMapper;
+    private final FanOut fanOut;
 
-    public UserServiceImpl(UserRepository userRepository, ActivityService activityService, MembershipRepository membershipRepository) {
+    public UserServiceImpl(UserRepository userRepository, ActivityService activityService, MembershipRepository membershipRepository,
+                           UserPurger userPurger, CurrentUser currentUser, ObjectMapper objectMapper,
+                           @Qualifier("applicationTaskExecutor") Executor executor, PlatformTransactionManager transactionManager,
+                           @Value("${dashboard.branch-timeout:2s}") Duration branchTimeout) {
         this.userRepository = userRepository;
         this.activityService = activityService;
         this.membershipRepository = membershipRepository;
+        this.userPurger = userPurger;
+        this.currentUser = currentUser;
+        this.objectMapper = objectMapper;
+        this.fanOut = new FanOut(executor, transactionManager, branchTimeout);
     }
 
     @Override
@@ -37,18 +68,45 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS_BY_NAME, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.USER_GROUPS, key = "#id"),
+            @CacheEvict(cacheNames = CacheConfig.DASHBOARDS, allEntries = true)
+    })
     public void deleteUserById(Long id) {
-        User user = userRepository.getReferenceById(id);
-        userRepository.delete(user);
+        userPurger.delete(id);
     }
 
     @Override
     public UserDashboardDto getUserDashboard(Authentication authentication) {
-        User user = userRepository.findByName(authentication.getName()).orElseThrow();
-        List<ActivityDto> activityDtoList = activityService.getActivities(authentication);
-        List<Group> groupList = membershipRepository.findGroupByUserId(user.getId());
-        BigDecimal userBalance = membershipRepository.sumUserNetAcrossGroups(user.getId()).map(UserBalanceDto::net).orElse(BigDecimal.ZERO);
-        List<String> groupNames = groupList.stream().map(Group::getName).toList();
-        return new UserDashboardDto(activityDtoList, groupNames, userBalance);
+        return buildDashboard(currentUser.id(authentication));
+    }
+
+    // evicted for every member of a group when that group changes, see DashboardCacheInvalidator
+    @Override
+    @Cacheable(cacheNames = CacheConfig.DASHBOARDS, key = "#userId")
+    public UserDashboardSnapshot getDashboardSnapshot(Long userId) {
+        UserDashboardDto dashboard = buildDashboard(userId);
+        return new UserDashboardSnapshot(dashboard, etag(dashboard));
+    }
+
+    // the three parts are independent, so latency is the slowest branch rather than the sum
+    private UserDashboardDto buildDashboard(Long userId) {
+        CompletableFuture<List<ActivityDto>> activity = fanOut.fork(() -> activityService.getFeed(userId, null, null).items());
+        CompletableFuture<List<String>> groupNames = fanOut.fork(() ->
+                membershipRepository.findGroupByUserId(userId).stream().map(Group::getName).toList());
+        CompletableFuture<BigDecimal> userBalance = fanOut.fork(() ->
+                membershipRepository.sumUserNetAcrossGroups(userId).map(UserBalanceDto::net).orElse(BigDecimal.ZERO));
+        return new UserDashboardDto(FanOut.join(activity), FanOut.join(groupNames), FanOut.join(userBalance));
+    }
+
+    private String etag(UserDashboardDto dashboard) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(dashboard));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
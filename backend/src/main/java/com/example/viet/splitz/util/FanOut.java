@@ -0,0 +1,48 @@
+package com.example.viet.splitz.util;
+
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent read-only queries concurrently. Every branch gets its own
+ * read-only transaction on a pool thread, carries the caller's security
+ * context, and fails after the timeout, both while waiting and as a JDBC
+ * query timeout. Branches do not share a snapshot.
+ */
+public final class FanOut {
+    private final Executor executor;
+    private final TransactionTemplate readOnly;
+    private final long timeoutMillis;
+
+    public FanOut(Executor executor, PlatformTransactionManager transactionManager, Duration timeout) {
+        this.executor = new DelegatingSecurityContextExecutor(executor);
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.readOnly.setTimeout((int) Math.max(1, (timeout.toMillis() + 999) / 1000));
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    public <T> CompletableFuture<T> fork(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> readOnly.execute(status -> query.get()), executor)
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public static <T> T join(CompletableFuture<T> branch) {
+        try {
+            return branch.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TimeoutException) throw new IllegalStateException("query branch timed out", e.getCause());
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+
+/**
+ * Moves each sequence V1_1 added past the ids its table already holds. The
+ * sequences allocate 50 ids per call (the entities' allocationSize), and
+ * Hibernate uses the 50 ids ending at the value it draws, so the next draw
+ * must be MAX(id) + 50. Java rather than SQL because H2, which the schema
+ * tests migrate, has no setval; ALTER SEQUENCE ... RESTART WITH is portable.
+ */
+public class V1_2__restart_id_sequences extends BaseJavaMigration {
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "expenses", "expenses_seq",
+            "group_members", "group_members_seq",
+            "settlement", "settlement_seq");
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (Map.Entry<String, String> sequence : SEQUENCES.entrySet()) {
+                long maxId;
+                try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + sequence.getKey())) {
+                    rs.next();
+                    maxId = rs.getLong(1);
+                }
+                statement.execute("ALTER SEQUENCE " + sequence.getValue() + " RESTART WITH " + (maxId + 50));
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+-- What the entities gained on top of the baseline: group versions, expense shares, the
+-- member_balance projection (filled from the journal by V4), and pooled sequences for the
+-- batch-inserted tables. V1_2 moves each sequence past the ids already in its table.
+
+-- ETag of GET /groups/{id}, bumped on every ledger or membership change
+ALTER TABLE groups ADD COLUMN version BIGINT DEFAULT 0 NOT NULL;
+
+CREATE SEQUENCE expenses_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE group_members_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE settlement_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE expenses ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE group_members ALTER COLUMN id DROP IDENTITY;
+ALTER TABLE settlement ALTER COLUMN id DROP IDENTITY;
+
+CREATE SEQUENCE expense_shares_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE expense_shares (
+    id         BIGINT PRIMARY KEY,
+    expense_id BIGINT NOT NULL,
+    group_id   BIGINT NOT NULL,
+    user_id    BIGINT NOT NULL,
+    amount     NUMERIC(12, 2) NOT NULL,
+    CONSTRAINT fk_expense_shares_expense FOREIGN KEY (expense_id) REFERENCES expenses (id),
+    CONSTRAINT fk_expense_shares_group FOREIGN KEY (group_id) REFERENCES groups (id),
+    CONSTRAINT fk_expense_shares_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+CREATE INDEX idx_expense_shares_group_user ON expense_shares (group_id, user_id);
+CREATE INDEX idx_expense_shares_expense ON expense_shares (expense_id);
+
+-- existing expenses were split equally across the group's members, as ExpenseShareRepository.backfillEqualShares does
+INSERT INTO expense_shares (id, expense_id, group_id, user_id, amount)
+SELECT nextval('expense_shares_seq'), x.expense_id, x.group_id, x.user_id,
+       (x.cents / x.members + CASE WHEN x.position <= MOD(x.cents, x.members) THEN 1 ELSE 0 END) / 100.0
+FROM (
+  SELECT e.id AS expense_id, e.group_id, m.user_id, CAST(e.amount * 100 AS BIGINT) AS cents,
+         COUNT(*) OVER (PARTITION BY e.id) AS members,
+         ROW_NUMBER() OVER (PARTITION BY e.id ORDER BY m.user_id) AS position
+  FROM expenses e
+  JOIN (SELECT DISTINCT group_id, user_id FROM group_members) m ON m.group_id = e.group_id
+) x;
+
+CREATE TABLE member_balance (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id BIGINT NOT NULL,
+    user_id  BIGINT NOT NULL,
+    owed     NUMERIC(14, 2) DEFAULT 0 NOT NULL,
+    paid     NUMERIC(14, 2) NOT NULL,
+    received NUMERIC(14, 2) NOT NULL,
+    sent     NUMERIC(14, 2) NOT NULL,
+    CONSTRAINT uk_member_balance_group_user UNIQUE (group_id, user_id),
+    CONSTRAINT fk_member_balance_group FOREIGN KEY (group_id) REFERENCES groups (id),
+    CONSTRAINT fk_member_balance_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
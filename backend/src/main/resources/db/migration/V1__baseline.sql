@@ -0,0 +1,46 @@
+-- Schema as it stood under ddl-auto=update, before the ledger work. Existing databases are
+-- baselined at this version (spring.flyway.baseline-on-migrate) and only run what follows.
+
+CREATE TABLE users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name     VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_users_name UNIQUE (name)
+);
+
+CREATE TABLE groups (
+    id   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE group_members (
+    id        BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id  BIGINT NOT NULL,
+    user_id   BIGINT NOT NULL,
+    joined_at TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT fk_group_members_group FOREIGN KEY (group_id) REFERENCES groups (id),
+    CONSTRAINT fk_group_members_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE expenses (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    description VARCHAR(255) NOT NULL,
+    amount      NUMERIC(12, 2) NOT NULL,
+    date        DATE NOT NULL,
+    user_id     BIGINT NOT NULL,
+    group_id    BIGINT NOT NULL,
+    CONSTRAINT fk_expenses_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_expenses_group FOREIGN KEY (group_id) REFERENCES groups (id)
+);
+
+CREATE TABLE settlement (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id    BIGINT NOT NULL,
+    payer_id    BIGINT NOT NULL,
+    receiver_id BIGINT NOT NULL,
+    amount      NUMERIC(12, 2) NOT NULL,
+    date        DATE NOT NULL,
+    CONSTRAINT fk_settlement_group FOREIGN KEY (group_id) REFERENCES groups (id),
+    CONSTRAINT fk_settlement_payer FOREIGN KEY (payer_id) REFERENCES users (id),
+    CONSTRAINT fk_settlement_receiver FOREIGN KEY (receiver_id) REFERENCES users (id)
+);
@@ -0,0 +1,22 @@
+-- Indexes for the repository queries; each is named after its columns.
+-- IF NOT EXISTS because databases baselined from ddl-auto may already have some.
+
+-- expense pages, ledger export and activity feed: group_id = ? ORDER BY date, id
+CREATE INDEX IF NOT EXISTS idx_expenses_group_date_id ON expenses (group_id, date, id);
+-- settlement ledger and activity feed
+CREATE INDEX IF NOT EXISTS idx_settlement_group_date_id ON settlement (group_id, date, id);
+
+-- deleting a user: the expenses they paid or have a share of, the settlements they sent or received
+-- and the groups they have a balance in
+CREATE INDEX IF NOT EXISTS idx_expenses_user ON expenses (user_id);
+CREATE INDEX IF NOT EXISTS idx_expense_shares_user ON expense_shares (user_id);
+CREATE INDEX IF NOT EXISTS idx_settlement_payer ON settlement (payer_id);
+CREATE INDEX IF NOT EXISTS idx_settlement_receiver ON settlement (receiver_id);
+CREATE INDEX IF NOT EXISTS idx_member_balance_user ON member_balance (user_id);
+
+-- a user belongs to a group at most once; the unique index also serves group_id lookups
+DELETE FROM group_members
+WHERE id NOT IN (SELECT MIN(id) FROM group_members GROUP BY group_id, user_id);
+ALTER TABLE group_members ADD CONSTRAINT uk_group_members_group_user UNIQUE (group_id, user_id);
+-- the user's groups (dashboard, group list, feeds)
+CREATE INDEX IF NOT EXISTS idx_group_members_user ON group_members (user_id);
@@ -0,0 +1,13 @@
+-- month-end nets per member; GET /groups/{id}/balances?asOf= adds the rows dated after the nearest one
+CREATE SEQUENCE balance_snapshot_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE balance_snapshot (
+    id         BIGINT PRIMARY KEY,
+    group_id   BIGINT NOT NULL,
+    user_id    BIGINT NOT NULL,
+    period_end DATE NOT NULL,
+    net        NUMERIC(14, 2) NOT NULL,
+    CONSTRAINT uk_balance_snapshot_group_period_user UNIQUE (group_id, period_end, user_id),
+    CONSTRAINT fk_balance_snapshot_group FOREIGN KEY (group_id) REFERENCES groups (id),
+    CONSTRAINT fk_balance_snapshot_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
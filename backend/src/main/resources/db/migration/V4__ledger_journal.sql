@@ -0,0 +1,55 @@
+-- append-only journal: one row per leg of an expense or settlement, amounts in cents, positive = owes more
+CREATE SEQUENCE ledger_entry_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE ledger_entry (
+    id           BIGINT PRIMARY KEY,
+    group_id     BIGINT NOT NULL,
+    user_id      BIGINT NOT NULL,
+    amount_minor BIGINT NOT NULL,
+    source_type  VARCHAR(16) NOT NULL,
+    source_id    BIGINT NOT NULL,
+    entry_date   DATE NOT NULL,
+    created_at   TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    CONSTRAINT fk_ledger_entry_group FOREIGN KEY (group_id) REFERENCES groups (id),
+    CONSTRAINT fk_ledger_entry_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+-- activity feed, export and as-of balances: group_id = ? ordered or cut by date
+CREATE INDEX idx_ledger_entry_group_date_source ON ledger_entry (group_id, entry_date, source_type, source_id);
+-- balance rebuild: each member's legs in a group
+CREATE INDEX idx_ledger_entry_group_user ON ledger_entry (group_id, user_id);
+-- user deletion and backfill: the legs of one expense or settlement
+CREATE INDEX idx_ledger_entry_source ON ledger_entry (source_type, source_id);
+
+-- journal the existing ledger: payers are credited, participants debited, settlements move from payer to receiver
+INSERT INTO ledger_entry (id, group_id, user_id, amount_minor, source_type, source_id, entry_date, created_at)
+SELECT nextval('ledger_entry_seq'), d.group_id, d.user_id, d.amount_minor, d.source_type, d.source_id, d.entry_date, CURRENT_TIMESTAMP
+FROM (
+  SELECT e.group_id, e.user_id, -CAST(e.amount * 100 AS BIGINT) AS amount_minor, 'EXPENSE' AS source_type,
+         e.id AS source_id, e.date AS entry_date
+  FROM expenses e
+  UNION ALL
+  SELECT x.group_id, x.user_id, CAST(x.amount * 100 AS BIGINT), 'EXPENSE', e.id, e.date
+  FROM expense_shares x JOIN expenses e ON e.id = x.expense_id
+  WHERE x.amount <> 0
+  UNION ALL
+  SELECT s.group_id, s.payer_id, -CAST(s.amount * 100 AS BIGINT), 'SETTLEMENT', s.id, s.date
+  FROM settlement s
+  UNION ALL
+  SELECT s.group_id, s.receiver_id, CAST(s.amount * 100 AS BIGINT), 'SETTLEMENT', s.id, s.date
+  FROM settlement s
+) d;
+
+-- member_balance is a projection of the journal, as MemberBalanceRepository.insertFromLedger builds it
+INSERT INTO member_balance (group_id, user_id, owed, paid, received, sent)
+SELECT p.group_id, p.user_id,
+  COALESCE(SUM(CASE WHEN l.source_type = 'EXPENSE' AND l.amount_minor > 0 THEN l.amount_minor END), 0) / 100.0,
+  COALESCE(SUM(CASE WHEN l.source_type = 'EXPENSE' AND l.amount_minor < 0 THEN -l.amount_minor END), 0) / 100.0,
+  COALESCE(SUM(CASE WHEN l.source_type = 'SETTLEMENT' AND l.amount_minor > 0 THEN l.amount_minor END), 0) / 100.0,
+  COALESCE(SUM(CASE WHEN l.source_type = 'SETTLEMENT' AND l.amount_minor < 0 THEN -l.amount_minor END), 0) / 100.0
+FROM (
+  SELECT group_id, user_id FROM group_members
+  UNION SELECT group_id, user_id FROM ledger_entry
+) p
+LEFT JOIN ledger_entry l ON l.group_id = p.group_id AND l.user_id = p.user_id
+GROUP BY p.group_id, p.user_id;
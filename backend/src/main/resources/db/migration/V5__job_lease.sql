@@ -0,0 +1,6 @@
+-- one row per scheduled job; an instance runs the job only while it holds the row's lease
+CREATE TABLE job_lease (
+    name         VARCHAR(64) PRIMARY KEY,
+    locked_until TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    locked_by    VARCHAR(64)
+);
@@ -0,0 +1,59 @@
+package com.example.viet.splitz;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.configuration.FluentConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A database from before the migrations is baselined at V1 and runs the
+ * rest on its existing rows. This stops at V1, writes rows the way the old
+ * IDENTITY mapping did, and checks what the later migrations make of them.
+ */
+class BaselineUpgradeTest {
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:splitz-upgrade;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=GROUPS", "sa", "");
+    private final JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+    @Test
+    void existingRows_getShares_aJournal_balances_andSequencesPastTheirIds() {
+        flyway().target(MigrationVersion.fromVersion("1")).load().migrate();
+        jdbc.update("INSERT INTO users (name, password) VALUES ('alice', 'x'), ('bob', 'x')");
+        jdbc.update("INSERT INTO groups (name) VALUES ('trip')");
+        // the duplicate membership V2 removes
+        jdbc.update("INSERT INTO group_members (group_id, user_id, joined_at) VALUES (1, 1, CURRENT_TIMESTAMP), "
+                + "(1, 2, CURRENT_TIMESTAMP), (1, 1, CURRENT_TIMESTAMP)");
+        jdbc.update("INSERT INTO expenses (description, amount, date, user_id, group_id) VALUES "
+                + "('dinner', 10.00, DATE '2025-01-01', 1, 1), ('taxi', 5.01, DATE '2025-01-02', 2, 1)");
+        jdbc.update("INSERT INTO settlement (group_id, payer_id, receiver_id, amount, date) VALUES (1, 2, 1, 2.00, DATE '2025-01-03')");
+
+        flyway().load().migrate();
+
+        assertThat(jdbc.queryForList("SELECT amount FROM expense_shares ORDER BY expense_id, user_id", BigDecimal.class))
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("5.00"), new BigDecimal("5.00"), new BigDecimal("2.51"), new BigDecimal("2.50"));
+        assertThat(jdbc.queryForList("SELECT SUM(amount_minor) FROM ledger_entry GROUP BY source_type, source_id", Long.class))
+                .hasSize(3).containsOnly(0L);
+        // alice paid 10, owes 7.51 and received 2; bob paid 5.01, owes 7.50 and sent 2
+        assertThat(jdbc.queryForList("SELECT owed - paid + received - sent FROM member_balance ORDER BY user_id", BigDecimal.class))
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("-0.49"), new BigDecimal("0.49"));
+        assertThat(jdbc.queryForObject("SELECT version FROM groups WHERE id = 1", Long.class)).isZero();
+        // Hibernate takes the 50 ids ending at what it draws, so the first draw must clear MAX(id) by 50
+        for (String table : List.of("expenses", "group_members", "settlement")) {
+            long maxId = jdbc.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            assertThat(jdbc.queryForObject("SELECT nextval('" + table + "_seq')", Long.class)).as(table).isGreaterThanOrEqualTo(maxId + 50);
+        }
+    }
+
+    private FluentConfiguration flyway() {
+        return Flyway.configure().dataSource(dataSource);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.viet.splitz;
+
+import com.example.viet.splitz.balance.BalanceSnapshotRepository;
+import com.example.viet.splitz.balance.MemberBalanceRepository;
+import com.example.viet.splitz.expense.ExpenseRepository;
+import com.example.viet.splitz.ledger.LedgerEntryRepository;
+import com.example.viet.splitz.membership.MembershipRepository;
+import com.example.viet.splitz.settlement.SettlementRepository;
+import com.example.viet.splitz.support.SqlCapture;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Builds the schema from the Flyway migrations instead of ddl-auto, so the
+ * entity mapping is validated against them, and checks that the SQL each
+ * repository query actually sends can seek its index: the leading index
+ * columns are constrained and any ORDER BY follows the rest. This reads the
+ * migrated index definitions, not a plan, so it does not depend on which of
+ * several usable indexes H2's planner happens to pick.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.datasource.url=jdbc:h2:mem:splitz-migrations;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=GROUPS",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.viet.splitz.support.SqlCapture"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class SchemaMigrationTest {
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired DataSource dataSource;
+    @Autowired ExpenseRepository expenseRepository;
+    @Autowired SettlementRepository settlementRepository;
+    @Autowired MembershipRepository membershipRepository;
+    @Autowired BalanceSnapshotRepository balanceSnapshotRepository;
+    @Autowired LedgerEntryRepository ledgerEntryRepository;
+    @Autowired MemberBalanceRepository memberBalanceRepository;
+
+    static Stream<Arguments> repositoryQueries() {
+        LocalDate today = LocalDate.now();
+        return Stream.of(
+                query("ExpenseRepository.findExpensePage", "expenses", "idx_expenses_group_date_id", 1,
+                        t -> t.expenseRepository.findExpensePage(1L, Limit.of(20))),
+                query("SettlementRepository.bulkDeleteByGroupId", "settlement", "idx_settlement_group_date_id", 1,
+                        t -> t.settlementRepository.bulkDeleteByGroupId(1L)),
+                query("LedgerEntryRepository.streamLedgerRowsByGroupId", "ledger_entry", "idx_ledger_entry_group_date_source", 1,
+                        t -> {
+                            try (var rows = t.ledgerEntryRepository.streamLedgerRowsByGroupId(1L)) {
+                                rows.count();
+                            }
+                        }),
+                query("LedgerEntryRepository.sumByUser", "ledger_entry", "idx_ledger_entry_group_date_source", 2,
+                        t -> t.ledgerEntryRepository.sumByUser(1L, today.minusMonths(1), today)),
+                query("MemberBalanceRepository.insertFromLedger", "ledger_entry", "idx_ledger_entry_group_user", 2,
+                        t -> t.memberBalanceRepository.insertFromLedger()),
+                query("LedgerEntryRepository.appendMissingExpenseEntries", "ledger_entry", "idx_ledger_entry_source", 2,
+                        t -> t.ledgerEntryRepository.appendMissingExpenseEntries()),
+                query("MembershipRepository.findGroupByUserId", "group_members", "idx_group_members_user", 1,
+                        t -> t.membershipRepository.findGroupByUserId(2L)),
+                query("MembershipRepository.findUserIdsByGroupId", "group_members", "uk_group_members_group_user", 1,
+                        t -> t.membershipRepository.findUserIdsByGroupId(1L)),
+                query("MembershipRepository.findUserIdsByGroupIds", "group_members", "uk_group_members_group_user", 1,
+                        t -> t.membershipRepository.findUserIdsByGroupIds(List.of(1L, 2L))),
+                query("MembershipRepository.existsByGroupIdAndUserId", "group_members", "uk_group_members_group_user", 2,
+                        t -> t.membershipRepository.existsByGroupIdAndUserId(1L, 2L)),
+                query("ExpenseRepository.findIdsByParticipant", "expenses", "idx_expenses_user", 1,
+                        t -> t.expenseRepository.findIdsByParticipant(2L)),
+                query("ExpenseRepository.findIdsByParticipant", "expense_shares", "idx_expense_shares_user", 1,
+                        t -> t.expenseRepository.findIdsByParticipant(2L)),
+                query("SettlementRepository.bulkDeleteByUserId", "settlement", "idx_settlement_payer", 1,
+                        t -> t.settlementRepository.bulkDeleteByUserId(2L)),
+                query("SettlementRepository.bulkDeleteByUserId", "settlement", "idx_settlement_receiver", 1,
+                        t -> t.settlementRepository.bulkDeleteByUserId(2L)),
+                query("MemberBalanceRepository.findGroupIdsByUserId", "member_balance", "idx_member_balance_user", 1,
+                        t -> t.memberBalanceRepository.findGroupIdsByUserId(2L)),
+                query("BalanceSnapshotRepository.findLatestPeriodEnd", "balance_snapshot", "uk_balance_snapshot_group_period_user", 2,
+                        t -> t.balanceSnapshotRepository.findLatestPeriodEnd(1L, today))
+        );
+    }
+
+    private static Arguments query(String name, String table, String index, int seekColumns, Consumer<SchemaMigrationTest> call) {
+        return Arguments.of(name, table, index, seekColumns, call);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void repositoryQuery_canSeekItsIndex(String name, String table, String index, int seekColumns,
+                                         Consumer<SchemaMigrationTest> call) throws SQLException {
+        List<String> columns = indexColumns(table, index);
+        assertThat(columns).as("%s on %s", index, table).hasSizeGreaterThanOrEqualTo(seekColumns);
+
+        String sql = SqlCapture.of(() -> call.accept(this)).stream()
+                .filter(statement -> Pattern.compile("(?i)\\b" + table + "\\b").matcher(statement).find())
+                .findFirst().orElseThrow(() -> new AssertionError(name + " sent no SQL against " + table));
+
+        for (String column : columns.subList(0, seekColumns)) {
+            assertThat(sql).as("%s constrains %s", name, column)
+                    .containsPattern("(?i)(\\w+\\.)?\\b" + column + "\\s*(=|<=|>=|<|>|\\bin\\b)");
+        }
+        List<String> orderBy = orderByColumns(sql);
+        if (!orderBy.isEmpty()) {
+            assertThat(columns.subList(seekColumns, columns.size())).as("%s orders by %s", name, index)
+                    .startsWith(orderBy.toArray(String[]::new));
+        }
+    }
+
+    @Test
+    void membership_isUniquePerGroupAndUser() {
+        jdbcTemplate.update("INSERT INTO users (id, name, password) VALUES (1, 'alice', 'x')");
+        jdbcTemplate.update("INSERT INTO groups (id, name) VALUES (1, 'trip')");
+        jdbcTemplate.update("INSERT INTO group_members (id, group_id, user_id, joined_at) VALUES (1, 1, 1, CURRENT_TIMESTAMP)");
+
+        assertThrows(DataIntegrityViolationException.class, () ->
+                jdbcTemplate.update("INSERT INTO group_members (id, group_id, user_id, joined_at) VALUES (2, 1, 1, CURRENT_TIMESTAMP)"));
+    }
+
+    // H2 suffixes the backing index of a unique constraint, so match on the prefix
+    private List<String> indexColumns(String table, String index) throws SQLException {
+        TreeMap<Short, String> columns = new TreeMap<>();
+        try (Connection connection = dataSource.getConnection();
+             ResultSet rows = connection.getMetaData().getIndexInfo(null, null, table.toUpperCase(Locale.ROOT), false, false)) {
+            while (rows.next()) {
+                String indexName = rows.getString("INDEX_NAME");
+                if (indexName != null && indexName.toLowerCase(Locale.ROOT).startsWith(index)) {
+                    columns.put(rows.getShort("ORDINAL_POSITION"), rows.getString("COLUMN_NAME").toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return new ArrayList<>(columns.values());
+    }
+
+    private static List<String> orderByColumns(String sql) {
+        String lower = sql.toLowerCase(Locale.ROOT);
+        int at = lower.lastIndexOf("order by");
+        if (at < 0) return List.of();
+        String clause = lower.substring(at + "order by".length()).split("\\b(fetch|offset|limit)\\b")[0];
+        return Arrays.stream(clause.split(","))
+                .map(term -> term.trim().replaceFirst("^\\w+\\.", "").replaceFirst("\\s+(asc|desc)$", "").trim())
+                .toList();
+    }
+}
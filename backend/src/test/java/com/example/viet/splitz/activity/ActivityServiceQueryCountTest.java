@@ -0,0 +1,84 @@
+package com.example.viet.splitz.activity;
+
+import com.example.viet.splitz.activity.dtos.ActivityDto;
+import com.example.viet.splitz.activity.dtos.ActivityPageDto;
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.expense.Expense;
+import com.example.viet.splitz.expense.ExpenseShare;
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.membership.Membership;
+import com.example.viet.splitz.settlement.Settlement;
+import com.example.viet.splitz.support.QueryCountTest;
+import com.example.viet.splitz.support.QueryCounter;
+import com.example.viet.splitz.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@QueryCountTest
+@Import({ActivityService.class, LedgerService.class, CurrentUser.class})
+class ActivityServiceQueryCountTest {
+    @Autowired TestEntityManager em;
+    @Autowired QueryCounter queryCounter;
+    @Autowired ActivityService activityService;
+    @Autowired LedgerService ledgerService;
+
+    @Test
+    void feed_runsOneQueryOnTheJournal_withGroupAndPayerNamesInline() {
+        User alice = persistUser("alice");
+        User bob = persistUser("bob");
+        seedGroups(alice, bob, 5);
+
+        ActivityPageDto page = queryCounter.assertAtMost(1, () -> activityService.getFeed(alice.getId(), null, 20));
+
+        assertThat(page.items()).hasSize(10);
+        assertThat(page.items()).allSatisfy(item -> assertThat(item.entityName()).startsWith("group "));
+        // newest first, and on the same date the settlement before the expense
+        assertThat(page.items().subList(0, 2)).extracting(ActivityDto::type).containsExactly("settlement", "expense");
+        assertThat(page.items().get(0).amount()).isEqualByComparingTo("-1");
+        assertThat(page.items().get(1).description()).isEqualTo("dinner 4");
+    }
+
+    @Test
+    void feed_doesNotScaleWithGroupsOrActivity() {
+        queryCounter.assertDoesNotScale(size -> {
+            User payer = persistUser("payer " + size);
+            User receiver = persistUser("receiver " + size);
+            seedGroups(payer, receiver, size);
+            return () -> activityService.getFeed(payer.getId(), null, 50);
+        });
+    }
+
+    // one expense and one settlement per group
+    private void seedGroups(User payer, User receiver, int groups) {
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        for (int i = 0; i < groups; i++) {
+            Group group = new Group();
+            group.setName("group " + payer.getName() + "-" + i);
+            em.persist(group);
+            em.persist(new Membership(null, payer, group, Instant.now()));
+            em.persist(new Membership(null, receiver, group, Instant.now()));
+            Expense expense = em.persist(new Expense(null, "dinner " + i, BigDecimal.TEN, payer, day.plusDays(i), group));
+            ExpenseShare share = em.persist(new ExpenseShare(expense, receiver, BigDecimal.TEN));
+            Settlement settlement = em.persist(new Settlement(null, payer, group, receiver, day.plusDays(i), BigDecimal.ONE));
+            ledgerService.recordExpenses(List.of(expense), List.of(share));
+            ledgerService.recordSettlements(List.of(settlement));
+        }
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setPassword("x");
+        return em.persist(user);
+    }
+}
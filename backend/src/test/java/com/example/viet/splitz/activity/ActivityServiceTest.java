@@ -0,0 +1,62 @@
+package com.example.viet.splitz.activity;
+
+import com.example.viet.splitz.activity.dtos.ActivityDto;
+import com.example.viet.splitz.activity.dtos.ActivityPageDto;
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.ledger.LedgerEntryRepository;
+import com.example.viet.splitz.util.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ActivityServiceTest {
+    @Mock LedgerEntryRepository ledgerEntryRepository;
+    @Mock CurrentUser currentUser;
+    @InjectMocks ActivityService activityService;
+
+    private static ActivityDto activity(String type, long id, LocalDate date) {
+        return new ActivityDto(type + ":" + id, type, 1L, "group", "alice", "desc", BigDecimal.ONE, date);
+    }
+
+    @Test
+    void getFeed_fetchesOneRowMoreThanThePage_andReturnsCursorOfLastItem(){
+        LocalDate day = LocalDate.of(2025, 3, 1);
+        when(ledgerEntryRepository.findActivitiesForUserBefore(eq(1L), eq(ActivityCursor.START.date()), eq(Long.MAX_VALUE),
+                eq(Long.MAX_VALUE), eq(Limit.of(3))))
+                .thenReturn(List.of(activity("expense", 5, day.plusDays(2)), activity("settlement", 9, day), activity("expense", 4, day)));
+
+        ActivityPageDto page = activityService.getFeed(1L, null, 2);
+
+        assertEquals(List.of("expense:5", "settlement:9"), page.items().stream().map(ActivityDto::id).toList());
+        assertEquals("2025-03-01,settlement,9", page.next());
+    }
+
+    @Test
+    void getFeed_afterSettlementCursor_keepsSameDayExpenses(){
+        LocalDate day = LocalDate.of(2025, 3, 1);
+        when(ledgerEntryRepository.findActivitiesForUserBefore(eq(1L), eq(day), eq(Long.MAX_VALUE), eq(9L), eq(Limit.of(11))))
+                .thenReturn(List.of(activity("expense", 4, day)));
+
+        ActivityPageDto page = activityService.getFeed(1L, "2025-03-01,settlement,9", null);
+
+        assertEquals(1, page.items().size());
+        assertNull(page.next());
+    }
+
+    @Test
+    void getFeed_malformedCursor_throws(){
+        assertThrows(InvalidCursorException.class, () -> activityService.getFeed(1L, "2025-03-01,9", 10));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.viet.splitz.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+    @Test
+    void verify_matchesOnlyTheRightPassword_andNeverAnUnknownUser(){
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(4);
+        PasswordHasher hasher = new PasswordHasher(encoder, new SimpleMeterRegistry(), 1, 8, true);
+        String hash = encoder.encode("secret");
+
+        assertTrue(hasher.verify("secret", hash).join().matches());
+        assertFalse(hasher.verify("wrong", hash).join().matches());
+        assertFalse(hasher.verify("dummy-password", null).join().matches());
+    }
+
+    @Test
+    void verify_weakerStoredHash_isUpgraded(){
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(5);
+        PasswordHasher hasher = new PasswordHasher(encoder, new SimpleMeterRegistry(), 1, 8, true);
+        String weak = new BCryptPasswordEncoder(4).encode("secret");
+
+        PasswordHasher.Verification result = hasher.verify("secret", weak).join();
+
+        assertTrue(result.matches());
+        assertNotNull(result.upgradedHash());
+        assertFalse(encoder.upgradeEncoding(result.upgradedHash()));
+        assertTrue(encoder.matches("secret", result.upgradedHash()));
+    }
+
+    @Test
+    void verify_queueFull_failsFast(){
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordHasher hasher = new PasswordHasher(new BlockingEncoder(release), new SimpleMeterRegistry(), 1, 1, false);
+
+        CompletableFuture<PasswordHasher.Verification> running = hasher.verify("a", "x");
+        CompletableFuture<PasswordHasher.Verification> queued = hasher.verify("b", "x");
+        CompletableFuture<PasswordHasher.Verification> rejected = hasher.verify("c", "x");
+
+        CompletionException e = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        release.countDown();
+        assertTrue(running.join().matches());
+        assertTrue(queued.join().matches());
+    }
+
+    private record BlockingEncoder(CountDownLatch release) implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence raw) {
+            return "x";
+        }
+
+        @Override
+        public boolean matches(CharSequence raw, String encoded) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return true;
+        }
+    }
+}
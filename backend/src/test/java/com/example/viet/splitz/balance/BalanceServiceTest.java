@@ -0,0 +1,130 @@
+package com.example.viet.splitz.balance;
+
+import com.example.viet.splitz.expense.Expense;
+import com.example.viet.splitz.expense.ExpenseShare;
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.membership.Membership;
+import com.example.viet.splitz.settlement.Settlement;
+import com.example.viet.splitz.support.QueryCountTest;
+import com.example.viet.splitz.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@QueryCountTest
+@Import({BalanceService.class, LedgerService.class})
+class BalanceServiceTest {
+    @Autowired TestEntityManager em;
+    @Autowired BalanceService balanceService;
+    @Autowired LedgerService ledgerService;
+
+    @Test
+    void recordedBalances_equalARebuildFromTheJournal() {
+        User alice = persistUser("alice");
+        User bob = persistUser("bob");
+        User carol = persistUser("carol");
+        Group trip = persistGroup(alice, bob, carol);
+        // carol has no balance row yet, so her first write goes through the create-once path
+        balanceService.openAccount(trip, alice);
+        balanceService.openAccount(trip, bob);
+        balanceService.openAccount(trip, alice);
+
+        recordExpense(trip, alice, "30.00", Map.of(alice, "10.00", bob, "10.00", carol, "10.00"));
+        recordExpense(trip, carol, "12.01", Map.of(alice, "4.01", bob, "4.00", carol, "4.00"));
+        recordSettlement(trip, bob, alice, "5.00");
+        recordSettlement(trip, carol, bob, "1.25");
+        List<List<BigDecimal>> recorded = balanceRows(trip);
+
+        balanceService.rebuild(List.of(trip.getId()));
+        List<List<BigDecimal>> rebuilt = balanceRows(trip);
+        balanceService.rebuild();
+
+        assertThat(recorded).hasSize(3);
+        assertThat(rebuilt).usingRecursiveComparison().withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(recorded);
+        assertThat(balanceRows(trip)).usingRecursiveComparison().withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .isEqualTo(recorded);
+        // owed, paid, received, sent of alice
+        assertThat(recorded.get(0)).usingElementComparator(BigDecimal::compareTo).containsExactly(
+                new BigDecimal("14.01"), new BigDecimal("30.00"), new BigDecimal("5.00"), BigDecimal.ZERO);
+    }
+
+    @Test
+    void rebuild_backfillsEqualSharesThatAddUpToTheCent() {
+        User alice = persistUser("alice");
+        User bob = persistUser("bob");
+        User carol = persistUser("carol");
+        Group trip = persistGroup(alice, bob, carol);
+        Expense expense = em.persist(new Expense(null, "taxi", new BigDecimal("10.00"), alice, LocalDate.of(2025, 1, 1), trip));
+        em.flush();
+
+        balanceService.rebuild();
+        em.clear();
+
+        List<BigDecimal> shares = em.getEntityManager()
+                .createQuery("select s.amount from ExpenseShare s where s.expense.id = :id order by s.user.id", BigDecimal.class)
+                .setParameter("id", expense.getId()).getResultList();
+        assertThat(shares).usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("3.34"), new BigDecimal("3.33"), new BigDecimal("3.33"));
+        // the journal legs of the expense still net to zero
+        assertThat(em.getEntityManager()
+                .createQuery("select sum(l.amountMinor) from LedgerEntry l where l.sourceId = :id", Long.class)
+                .setParameter("id", expense.getId()).getSingleResult()).isZero();
+    }
+
+    // what ExpenseServiceImpl and SettlementService write in one transaction
+    private void recordExpense(Group group, User payer, String amount, Map<User, String> owed) {
+        Expense expense = em.persist(new Expense(null, "expense", new BigDecimal(amount), payer, LocalDate.of(2025, 1, 1), group));
+        List<ExpenseShare> shares = new ArrayList<>();
+        Map<Long, BigDecimal> owedByUser = new LinkedHashMap<>();
+        owed.forEach((user, share) -> {
+            shares.add(em.persist(new ExpenseShare(expense, user, new BigDecimal(share))));
+            owedByUser.put(user.getId(), new BigDecimal(share));
+        });
+        ledgerService.recordExpenses(List.of(expense), shares);
+        balanceService.recordExpense(group, payer, expense.getAmount(), owedByUser);
+    }
+
+    private void recordSettlement(Group group, User payer, User receiver, String amount) {
+        Settlement settlement = em.persist(new Settlement(null, payer, group, receiver, LocalDate.of(2025, 1, 2), new BigDecimal(amount)));
+        ledgerService.recordSettlements(List.of(settlement));
+        balanceService.recordSettlement(group, payer, receiver, settlement.getAmount());
+    }
+
+    private List<List<BigDecimal>> balanceRows(Group group) {
+        em.flush();
+        em.clear();
+        return em.getEntityManager()
+                .createQuery("select b from MemberBalance b where b.group.id = :id order by b.user.id", MemberBalance.class)
+                .setParameter("id", group.getId()).getResultStream()
+                .map(b -> List.of(b.getOwed(), b.getPaid(), b.getReceived(), b.getSent()))
+                .toList();
+    }
+
+    private Group persistGroup(User... members) {
+        Group group = new Group();
+        group.setName("trip");
+        em.persist(group);
+        for (User member : members) em.persist(new Membership(null, member, group, Instant.now()));
+        return group;
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setPassword("x");
+        return em.persist(user);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.viet.splitz.balance;
+
+import com.example.viet.splitz.expense.Expense;
+import com.example.viet.splitz.expense.ExpenseCreatedEvent;
+import com.example.viet.splitz.expense.ExpenseShare;
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.group.GroupVersionBumper;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.membership.Membership;
+import com.example.viet.splitz.support.QueryCountTest;
+import com.example.viet.splitz.user.User;
+import com.example.viet.splitz.user.dtos.UserBalanceDto;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The job and the changes meet on committed rows and row locks, so these run
+ * without the slice's test transaction, on a database of their own.
+ */
+@QueryCountTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:mem:splitz-snapshots;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=GROUPS;LOCK_TIMEOUT=10000")
+@Import({BalanceSnapshotService.class, LedgerService.class, GroupVersionBumper.class})
+class BalanceSnapshotConcurrencyTest {
+    @Autowired BalanceSnapshotService balanceSnapshotService;
+    @Autowired BalanceSnapshotRepository balanceSnapshotRepository;
+    @Autowired JobLeaseRepository jobLeaseRepository;
+    @Autowired LedgerService ledgerService;
+    @Autowired ApplicationEventPublisher eventPublisher;
+    @Autowired EntityManager entityManager;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    void snapshot_waitsForABackdatedChangeInFlight_andIncludesIt() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        User alice = tx.execute(status -> persistUser("race-alice"));
+        User bob = tx.execute(status -> persistUser("race-bob"));
+        Group trip = tx.execute(status -> persistGroup("race-trip", alice, bob));
+        tx.executeWithoutResult(status -> persistExpense(trip, alice, "20.00", LocalDate.of(2025, 1, 10), alice, bob));
+        LocalDate january = LocalDate.of(2025, 1, 31);
+
+        CompletableFuture<Integer> snapshot = tx.execute(status -> {
+            // a backdated expense whose transaction is still open when the job reaches the group
+            Expense late = persistExpense(trip, bob, "40.00", LocalDate.of(2025, 1, 20), alice, bob);
+            eventPublisher.publishEvent(new ExpenseCreatedEvent(trip.getId(), late.getId(), late.getDescription(), late.getAmount(),
+                    bob.getId(), late.getDate()));
+            CompletableFuture<Integer> running = CompletableFuture.supplyAsync(() -> balanceSnapshotService.snapshotThrough(january));
+            assertThat(running).failsWithin(Duration.ofMillis(500)).withThrowableThat().isInstanceOf(TimeoutException.class);
+            return running;
+        });
+
+        assertThat(snapshot.get(10, TimeUnit.SECONDS)).isEqualTo(2);
+        assertThat(balanceSnapshotRepository.findLatestPeriodEnd(trip.getId(), january)).contains(january);
+        // alice paid 20 and owes 30, bob paid 40 and owes 30
+        assertThat(balanceSnapshotService.balancesAsOf(trip.getId(), january)).extracting(UserBalanceDto::net)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("10.00"), new BigDecimal("-10.00"));
+    }
+
+    @Test
+    void snapshotLastMonth_runsOnlyOnTheInstanceHoldingTheLease() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        User alice = tx.execute(status -> persistUser("lease-alice"));
+        Group trip = tx.execute(status -> persistGroup("lease-trip", alice));
+        LocalDate lastMonth = YearMonth.now().minusMonths(1).atEndOfMonth();
+        tx.executeWithoutResult(status -> persistExpense(trip, alice, "5.00", lastMonth.minusDays(3), alice));
+        Instant now = Instant.now();
+        tx.executeWithoutResult(status -> {
+            jobLeaseRepository.insertIfAbsent(BalanceSnapshotService.JOB);
+            assertThat(jobLeaseRepository.acquire(BalanceSnapshotService.JOB, "other-instance", now, now.plusSeconds(3600))).isEqualTo(1);
+        });
+
+        balanceSnapshotService.snapshotLastMonth();
+        assertThat(balanceSnapshotRepository.findLatestPeriodEnd(trip.getId(), lastMonth)).isEmpty();
+
+        tx.executeWithoutResult(status -> jobLeaseRepository.release(BalanceSnapshotService.JOB, "other-instance", Instant.now()));
+        balanceSnapshotService.snapshotLastMonth();
+        assertThat(balanceSnapshotRepository.findLatestPeriodEnd(trip.getId(), lastMonth)).contains(lastMonth);
+        // and hands the lease back when it is done
+        assertThat(jobLeaseRepository.findById(BalanceSnapshotService.JOB)).get()
+                .extracting(JobLease::getLockedBy).isNull();
+    }
+
+    private Group persistGroup(String name, User... members) {
+        Group group = new Group();
+        group.setName(name);
+        entityManager.persist(group);
+        for (User member : members) entityManager.persist(new Membership(null, member, group, Instant.now()));
+        return group;
+    }
+
+    private Expense persistExpense(Group group, User payer, String amount, LocalDate date, User... members) {
+        Expense expense = new Expense(null, "dinner", new BigDecimal(amount), entityManager.getReference(User.class, payer.getId()), date, entityManager.getReference(Group.class, group.getId()));
+        entityManager.persist(expense);
+        BigDecimal share = new BigDecimal(amount).divide(BigDecimal.valueOf(members.length));
+        List<ExpenseShare> shares = new ArrayList<>();
+        for (User member : members) {
+            ExpenseShare expenseShare = new ExpenseShare(expense, entityManager.getReference(User.class, member.getId()), share);
+            entityManager.persist(expenseShare);
+            shares.add(expenseShare);
+        }
+        ledgerService.recordExpenses(List.of(expense), shares);
+        return expense;
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setPassword("x");
+        entityManager.persist(user);
+        return user;
+    }
+}
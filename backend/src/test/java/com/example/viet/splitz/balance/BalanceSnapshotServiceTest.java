@@ -0,0 +1,119 @@
+package com.example.viet.splitz.balance;
+
+import com.example.viet.splitz.expense.Expense;
+import com.example.viet.splitz.expense.ExpenseCreatedEvent;
+import com.example.viet.splitz.expense.ExpenseShare;
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.membership.Membership;
+import com.example.viet.splitz.settlement.Settlement;
+import com.example.viet.splitz.settlement.SettlementCreatedEvent;
+import com.example.viet.splitz.support.QueryCountTest;
+import com.example.viet.splitz.support.QueryCounter;
+import com.example.viet.splitz.user.User;
+import com.example.viet.splitz.user.dtos.UserBalanceDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@QueryCountTest
+@Import({BalanceSnapshotService.class, LedgerService.class})
+class BalanceSnapshotServiceTest {
+    @Autowired TestEntityManager em;
+    @Autowired QueryCounter queryCounter;
+    @Autowired BalanceSnapshotService balanceSnapshotService;
+    @Autowired BalanceSnapshotRepository balanceSnapshotRepository;
+    @Autowired LedgerService ledgerService;
+
+    @Test
+    void balancesAsOf_fromSnapshotPlusDelta_matchFullHistory() {
+        User alice = persistUser("alice");
+        User bob = persistUser("bob");
+        Group trip = persistGroup("trip", alice, bob);
+        persistExpense(trip, alice, "20.00", LocalDate.of(2025, 1, 10), alice, bob);
+        persistExpense(trip, bob, "30.00", LocalDate.of(2025, 2, 5), alice, bob);
+        Settlement settlement = em.persist(new Settlement(null, bob, trip, alice, LocalDate.of(2025, 2, 20), new BigDecimal("5.00")));
+        ledgerService.recordSettlements(List.of(settlement));
+        persistExpense(trip, alice, "10.00", LocalDate.of(2025, 3, 3), alice, bob);
+        em.flush();
+        List<UserBalanceDto> midFebruary = balanceSnapshotService.balancesAsOf(trip.getId(), LocalDate.of(2025, 2, 10));
+        List<UserBalanceDto> midMarch = balanceSnapshotService.balancesAsOf(trip.getId(), LocalDate.of(2025, 3, 15));
+
+        // January and February month ends for both members
+        assertThat(balanceSnapshotService.snapshotThrough(LocalDate.of(2025, 2, 28))).isEqualTo(4);
+
+        assertThat(balanceSnapshotService.balancesAsOf(trip.getId(), LocalDate.of(2025, 2, 10))).isEqualTo(midFebruary);
+        assertThat(balanceSnapshotService.balancesAsOf(trip.getId(), LocalDate.of(2025, 3, 15))).isEqualTo(midMarch);
+        assertThat(midFebruary).extracting(UserBalanceDto::net)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("5.00"), new BigDecimal("-5.00"));
+        assertThat(balanceSnapshotService.balancesAsOf(trip.getId(), LocalDate.of(2025, 2, 28))).extracting(UserBalanceDto::net)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("10.00"), new BigDecimal("-10.00"));
+    }
+
+    @Test
+    void backdatedChange_dropsSnapshotsFromItsDate() {
+        User alice = persistUser("alice");
+        User bob = persistUser("bob");
+        Group trip = persistGroup("trip", alice, bob);
+        persistExpense(trip, alice, "20.00", LocalDate.of(2025, 1, 10), alice, bob);
+        balanceSnapshotService.snapshotThrough(LocalDate.of(2025, 2, 28));
+
+        balanceSnapshotService.onGroupChanged(new SettlementCreatedEvent(trip.getId(), 1L, bob.getId(), alice.getId(),
+                BigDecimal.ONE, LocalDate.of(2025, 2, 10)));
+        assertThat(balanceSnapshotRepository.findLatestPeriodEnd(trip.getId(), LocalDate.of(2025, 12, 31)))
+                .contains(LocalDate.of(2025, 1, 31));
+
+        balanceSnapshotService.onGroupChanged(new ExpenseCreatedEvent(trip.getId(), 1L, "late", BigDecimal.TEN, alice.getId(),
+                LocalDate.of(2025, 1, 31)));
+        assertThat(balanceSnapshotRepository.findLatestPeriodEnd(trip.getId(), LocalDate.of(2025, 12, 31))).isEmpty();
+    }
+
+    @Test
+    void balancesAsOf_doesNotScaleWithHistory() {
+        queryCounter.assertDoesNotScale(months -> {
+            User payer = persistUser("payer " + months);
+            User other = persistUser("other " + months);
+            Group group = persistGroup("group " + months, payer, other);
+            LocalDate start = LocalDate.of(2020, 1, 15);
+            for (int i = 0; i < months; i++) persistExpense(group, payer, "10.00", start.plusMonths(i), payer, other);
+            LocalDate lastMonthEnd = start.plusMonths(months - 1).withDayOfMonth(1).plusMonths(1).minusDays(1);
+            em.flush();
+            balanceSnapshotService.snapshotThrough(lastMonthEnd);
+            return () -> balanceSnapshotService.balancesAsOf(group.getId(), lastMonthEnd.plusDays(10));
+        });
+    }
+
+    private Group persistGroup(String name, User... members) {
+        Group group = new Group();
+        group.setName(name);
+        em.persist(group);
+        for (User member : members) em.persist(new Membership(null, member, group, Instant.now()));
+        return group;
+    }
+
+    private void persistExpense(Group group, User payer, String amount, LocalDate date, User... members) {
+        Expense expense = em.persist(new Expense(null, "dinner", new BigDecimal(amount), payer, date, group));
+        BigDecimal share = new BigDecimal(amount).divide(BigDecimal.valueOf(members.length));
+        List<ExpenseShare> shares = new ArrayList<>();
+        for (User member : members) shares.add(em.persist(new ExpenseShare(expense, member, share)));
+        ledgerService.recordExpenses(List.of(expense), shares);
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setPassword("x");
+        return em.persist(user);
+    }
+}
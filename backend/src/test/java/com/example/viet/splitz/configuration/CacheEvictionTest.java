@@ -0,0 +1,218 @@
+package com.example.viet.splitz.configuration;
+
+import com.example.viet.splitz.auth.AuthService;
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.auth.PasswordHasher;
+import com.example.viet.splitz.balance.BalanceService;
+import com.example.viet.splitz.balance.BalanceSnapshotService;
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.group.GroupController;
+import com.example.viet.splitz.group.GroupEventBroadcaster;
+import com.example.viet.splitz.group.GroupExportService;
+import com.example.viet.splitz.group.GroupPurger;
+import com.example.viet.splitz.group.GroupRepository;
+import com.example.viet.splitz.group.GroupService;
+import com.example.viet.splitz.group.GroupVersionBumper;
+import com.example.viet.splitz.group.dtos.GroupIdResDto;
+import com.example.viet.splitz.group.MemberAddedEvent;
+import com.example.viet.splitz.jwt.JwtService;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.membership.Membership;
+import com.example.viet.splitz.membership.MembershipRepository;
+import com.example.viet.splitz.support.QueryCountTest;
+import com.example.viet.splitz.support.SqlCapture;
+import com.example.viet.splitz.user.DashboardCacheInvalidator;
+import com.example.viet.splitz.user.User;
+import com.example.viet.splitz.user.UserRepository;
+import com.example.viet.splitz.user.dtos.UserResDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Evictions are deferred to commit, so these run without the slice's test
+ * transaction, on a database of their own because the rows they commit stay.
+ */
+@QueryCountTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:splitz-caches;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=GROUPS",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.example.viet.splitz.support.SqlCapture"
+})
+@Import({CacheConfig.class, GroupService.class, BalanceService.class, BalanceSnapshotService.class, LedgerService.class,
+        CurrentUser.class, GroupVersionBumper.class, AuthService.class, DashboardCacheInvalidator.class,
+        GroupController.class})
+class CacheEvictionTest {
+    @Autowired CacheManager cacheManager;
+    @Autowired GroupService groupService;
+    @Autowired AuthService authService;
+    @Autowired GroupController groupController;
+    @Autowired UserRepository userRepository;
+    @Autowired GroupRepository groupRepository;
+    @Autowired MembershipRepository membershipRepository;
+    @Autowired ApplicationEventPublisher eventPublisher;
+    @Autowired PlatformTransactionManager transactionManager;
+    @MockitoBean GroupPurger groupPurger;
+    @MockitoBean PasswordEncoder passwordEncoder;
+    @MockitoBean JwtService jwtService;
+    @MockitoBean PasswordHasher passwordHasher;
+    @MockitoBean GroupExportService groupExportService;
+    @MockitoBean GroupEventBroadcaster groupEventBroadcaster;
+
+    @Test
+    void usersByName_holdsIdAndName_andTheAuthLookupBypassesIt() {
+        User user = saveUser("cache-dora");
+
+        assertThat(userRepository.findByName("cache-dora")).isPresent();
+        assertThat(cache(CacheConfig.USERS_BY_NAME).get("cache-dora")).isNull();
+
+        userRepository.findIdAndNameByName("cache-dora");
+        assertThat(cache(CacheConfig.USERS_BY_NAME).get("cache-dora").get())
+                .isEqualTo(new UserResDto(user.getId(), "cache-dora"));
+    }
+
+    @Test
+    void addingAMember_evictsThatUsersGroups() {
+        User bob = saveUser("cache-bob");
+        Group group = saveGroup("cache-trip");
+        assertThat(membershipRepository.findGroupByUserId(bob.getId())).isEmpty();
+        assertThat(cache(CacheConfig.USER_GROUPS).get(bob.getId())).isNotNull();
+
+        groupService.addMember(group.getId(), "cache-bob");
+
+        assertThat(cache(CacheConfig.USER_GROUPS).get(bob.getId())).isNull();
+        assertThat(membershipRepository.findGroupByUserId(bob.getId())).extracting(Group::getName).containsExactly("cache-trip");
+    }
+
+    @Test
+    void deletingAGroup_evictsTheGroupAndEveryUsersGroups() {
+        User carol = saveUser("cache-carol");
+        Group group = saveGroup("cache-party");
+        membershipRepository.save(new Membership(null, carol, group, Instant.now()));
+        groupRepository.findById(group.getId());
+        membershipRepository.findGroupByUserId(carol.getId());
+        cache(CacheConfig.DASHBOARDS).put(carol.getId(), "dashboard");
+
+        groupService.delete(group.getId());
+
+        assertThat(cache(CacheConfig.GROUPS).get(group.getId())).isNull();
+        assertThat(cache(CacheConfig.USER_GROUPS).get(carol.getId())).isNull();
+        assertThat(cache(CacheConfig.DASHBOARDS).get(carol.getId())).isNull();
+    }
+
+    @Test
+    void renamingAUser_evictsTheOldName() {
+        User erin = saveUser("cache-erin");
+        userRepository.findIdAndNameByName("cache-erin");
+
+        authService.updateUserName(erin.getId(), "cache-erin2");
+
+        assertThat(cache(CacheConfig.USERS_BY_NAME).get("cache-erin")).isNull();
+        assertThat(userRepository.findIdAndNameByName("cache-erin")).isEmpty();
+        assertThat(userRepository.findIdAndNameByName("cache-erin2")).map(UserResDto::id).contains(erin.getId());
+    }
+
+    @Test
+    void renamingAUser_changesTheirGroupsETags_andDropsTheMembersDashboards() {
+        User judy = saveUser("cache-judy");
+        User kim = saveUser("cache-kim");
+        Group group = saveGroup("cache-hike");
+        membershipRepository.save(new Membership(null, judy, group, Instant.now()));
+        membershipRepository.save(new Membership(null, kim, group, Instant.now()));
+        String etag = groupController.get(group.getId(), null, request(null)).getHeaders().getETag();
+        cache(CacheConfig.DASHBOARDS).put(kim.getId(), "dashboard");
+
+        authService.updateUserName(judy.getId(), "cache-judy2");
+
+        ResponseEntity<GroupIdResDto> response = groupController.get(group.getId(), null, request(etag));
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(cache(CacheConfig.DASHBOARDS).get(kim.getId())).isNull();
+    }
+
+    @Test
+    void groupEvents_evictTheMembersDashboards_onCommit_withOneMemberLookupPerTransaction() {
+        User frank = saveUser("cache-frank");
+        User grace = saveUser("cache-grace");
+        User heidi = saveUser("cache-heidi");
+        Group ski = saveGroup("cache-ski");
+        Group flat = saveGroup("cache-flat");
+        membershipRepository.save(new Membership(null, frank, ski, Instant.now()));
+        membershipRepository.save(new Membership(null, grace, flat, Instant.now()));
+        for (User user : List.of(frank, grace, heidi)) cache(CacheConfig.DASHBOARDS).put(user.getId(), "dashboard");
+
+        List<String> sql = SqlCapture.of(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            // like executePlan: one event per settlement, most of them for the same group
+            for (int i = 0; i < 3; i++) eventPublisher.publishEvent(new MemberAddedEvent(ski.getId(), frank.getId()));
+            eventPublisher.publishEvent(new MemberAddedEvent(flat.getId(), grace.getId()));
+            assertThat(cache(CacheConfig.DASHBOARDS).get(frank.getId())).isNotNull();
+        }));
+
+        assertThat(sql).filteredOn(statement -> statement.contains("group_members")).hasSize(1);
+        assertThat(cache(CacheConfig.DASHBOARDS).get(frank.getId())).isNull();
+        assertThat(cache(CacheConfig.DASHBOARDS).get(grace.getId())).isNull();
+        assertThat(cache(CacheConfig.DASHBOARDS).get(heidi.getId())).isNotNull();
+    }
+
+    @Test
+    void groupEvents_inARolledBackTransaction_keepTheDashboards() {
+        User ivan = saveUser("cache-ivan");
+        Group group = saveGroup("cache-boat");
+        membershipRepository.save(new Membership(null, ivan, group, Instant.now()));
+        cache(CacheConfig.DASHBOARDS).put(ivan.getId(), "dashboard");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new MemberAddedEvent(group.getId(), ivan.getId()));
+            status.setRollbackOnly();
+        });
+
+        assertThat(cache(CacheConfig.DASHBOARDS).get(ivan.getId())).isNotNull();
+        // the next transaction starts with nothing collected
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                eventPublisher.publishEvent(new MemberAddedEvent(group.getId(), ivan.getId())));
+        assertThat(cache(CacheConfig.DASHBOARDS).get(ivan.getId())).isNull();
+    }
+
+    private ServletWebRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/groups");
+        if (ifNoneMatch != null) request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return new ServletWebRequest(request);
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setPassword("x");
+        return userRepository.save(user);
+    }
+
+    private Group saveGroup(String name) {
+        Group group = new Group();
+        group.setName(name);
+        return groupRepository.save(group);
+    }
+}
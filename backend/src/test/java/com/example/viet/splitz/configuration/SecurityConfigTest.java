@@ -0,0 +1,31 @@
+package com.example.viet.splitz.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecurityConfigTest {
+    private final RequestMatcher scrape = SecurityConfig.onManagementPort(8081, "/actuator/prometheus");
+
+    @Test
+    void prometheus_isOpenOnlyOnTheManagementPort(){
+        assertTrue(scrape.matches(request(8081, "/actuator/prometheus")));
+        assertFalse(scrape.matches(request(8080, "/actuator/prometheus")));
+        assertFalse(scrape.matches(request(8081, "/actuator/metrics")));
+    }
+
+    @Test
+    void withoutAManagementPort_prometheusIsNeverOpen(){
+        RequestMatcher unset = SecurityConfig.onManagementPort(-1, "/actuator/prometheus");
+
+        assertFalse(unset.matches(request(8080, "/actuator/prometheus")));
+    }
+
+    private static MockHttpServletRequest request(int localPort, String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        request.setLocalPort(localPort);
+        return request;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.viet.splitz.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ServiceTimingAspectTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Service
+    static class TripService {
+        public String rename(String name) {
+            return name.trim();
+        }
+
+        public void delete() {
+            throw new IllegalStateException("still has expenses");
+        }
+    }
+
+    private TripService proxied() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new TripService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceTimingAspect(registry));
+        return factory.getProxy();
+    }
+
+    @Test
+    void publicServiceMethod_isTimedPerClassAndMethod(){
+        TripService service = proxied();
+
+        assertEquals("trip", service.rename(" trip "));
+        service.rename("again");
+
+        assertEquals(2, registry.get("splitz.service").tag("class", "TripService").tag("method", "rename")
+                .tag("exception", "none").timer().count());
+    }
+
+    @Test
+    void failingServiceMethod_isTimedWithTheException_andStillThrows(){
+        TripService service = proxied();
+
+        assertThrows(IllegalStateException.class, service::delete);
+
+        assertEquals(1, registry.get("splitz.service").tag("method", "delete")
+                .tag("exception", "IllegalStateException").timer().count());
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.viet.splitz.configuration;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StatementCountFilterTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StatementCounter statementCounter = new StatementCounter();
+    private final StatementCountFilter filter = new StatementCountFilter(statementCounter, registry);
+
+    @Test
+    void request_recordsItsStatementCount_underTheMatchedRoute() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/groups/7");
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/groups/{id}");
+            for (int i = 0; i < 3; i++) statementCounter.inspect("select 1");
+        });
+        filter.doFilter(new MockHttpServletRequest("GET", "/groups/8"), new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/groups/{id}");
+            statementCounter.inspect("select 1");
+        });
+
+        DistributionSummary summary = registry.get("http.server.requests.statements")
+                .tag("method", "GET").tag("uri", "/groups/{id}").summary();
+        assertEquals(2, summary.count());
+        assertEquals(4.0, summary.totalAmount());
+        assertEquals(3.0, summary.max());
+    }
+
+    @Test
+    void statementsOutsideARequest_areNotCounted() throws Exception {
+        statementCounter.inspect("select 1");
+        filter.doFilter(new MockHttpServletRequest("GET", "/nowhere"), new MockHttpServletResponse(), (req, res) -> {});
+        statementCounter.inspect("select 1");
+
+        DistributionSummary summary = registry.get("http.server.requests.statements").tag("uri", "UNKNOWN").summary();
+        assertEquals(1, summary.count());
+        assertEquals(0.0, summary.totalAmount());
+        assertEquals(0, statementCounter.stop());
+    }
+}
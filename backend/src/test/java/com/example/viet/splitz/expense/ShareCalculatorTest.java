@@ -0,0 +1,74 @@
+package com.example.viet.splitz.expense;
+
+import com.example.viet.splitz.expense.dtos.AddExpenseDto;
+import com.example.viet.splitz.expense.dtos.SplitDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShareCalculatorTest {
+    private static final List<Long> MEMBERS = List.of(1L, 2L, 3L);
+
+    @Test
+    void equal_withoutSplits_coversEveryMember_andSumsToAmount(){
+        Map<Long, BigDecimal> shares = ShareCalculator.shares(expense("100.00", null, null), MEMBERS);
+
+        assertEquals(new BigDecimal("33.34"), shares.get(1L));
+        assertEquals(new BigDecimal("33.33"), shares.get(2L));
+        assertEquals(new BigDecimal("33.33"), shares.get(3L));
+        assertEquals(new BigDecimal("100.00"), sum(shares));
+    }
+
+    @Test
+    void shares_givesLeftoverCentsToLargestRemainders(){
+        Map<Long, BigDecimal> shares = ShareCalculator.shares(expense("10.00", SplitType.SHARES,
+                List.of(new SplitDto(1L, BigDecimal.ONE), new SplitDto(2L, BigDecimal.valueOf(2)))), MEMBERS);
+
+        assertEquals(new BigDecimal("3.33"), shares.get(1L));
+        assertEquals(new BigDecimal("6.67"), shares.get(2L));
+        assertFalse(shares.containsKey(3L));
+    }
+
+    @Test
+    void percent_mustAddUpToHundred(){
+        Map<Long, BigDecimal> shares = ShareCalculator.shares(expense("80.00", SplitType.PERCENT,
+                List.of(new SplitDto(1L, BigDecimal.valueOf(25)), new SplitDto(3L, BigDecimal.valueOf(75)))), MEMBERS);
+        assertEquals(new BigDecimal("20.00"), shares.get(1L));
+        assertEquals(new BigDecimal("60.00"), shares.get(3L));
+
+        assertThrows(IllegalArgumentException.class, () -> ShareCalculator.shares(expense("80.00", SplitType.PERCENT,
+                List.of(new SplitDto(1L, BigDecimal.valueOf(50)))), MEMBERS));
+    }
+
+    @Test
+    void exact_mustMatchAmount(){
+        Map<Long, BigDecimal> shares = ShareCalculator.shares(expense("12.50", SplitType.EXACT,
+                List.of(new SplitDto(1L, new BigDecimal("10")), new SplitDto(2L, new BigDecimal("2.5")))), MEMBERS);
+        assertEquals(new BigDecimal("10.00"), shares.get(1L));
+        assertEquals(new BigDecimal("2.50"), shares.get(2L));
+
+        assertThrows(IllegalArgumentException.class, () -> ShareCalculator.shares(expense("12.50", SplitType.EXACT,
+                List.of(new SplitDto(1L, new BigDecimal("10")))), MEMBERS));
+    }
+
+    @Test
+    void splits_rejectNonMembersAndDuplicates(){
+        assertThrows(IllegalArgumentException.class, () -> ShareCalculator.shares(expense("10.00", SplitType.SHARES,
+                List.of(new SplitDto(9L, BigDecimal.ONE))), MEMBERS));
+        assertThrows(IllegalArgumentException.class, () -> ShareCalculator.shares(expense("10.00", SplitType.SHARES,
+                List.of(new SplitDto(1L, BigDecimal.ONE), new SplitDto(1L, BigDecimal.ONE))), MEMBERS));
+    }
+
+    private static AddExpenseDto expense(String amount, SplitType type, List<SplitDto> splits) {
+        return new AddExpenseDto("dinner", new BigDecimal(amount), 1L, LocalDate.of(2025, 1, 1), 7L, type, splits);
+    }
+
+    private static BigDecimal sum(Map<Long, BigDecimal> shares) {
+        return shares.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.viet.splitz.expense.impl;
+
+import com.example.viet.splitz.auth.AuthUser;
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.balance.BalanceService;
+import com.example.viet.splitz.expense.ExpenseImportService.Format;
+import com.example.viet.splitz.expense.ExpensesImportedEvent;
+import com.example.viet.splitz.expense.dtos.ImportErrorDto;
+import com.example.viet.splitz.expense.dtos.ImportResultDto;
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.group.GroupRepository;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.membership.Membership;
+import com.example.viet.splitz.membership.MembershipRepository;
+import com.example.viet.splitz.support.QueryCountTest;
+import com.example.viet.splitz.user.User;
+import com.example.viet.splitz.user.UserRepository;
+import com.example.viet.splitz.user.dtos.UserBalanceDto;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Each chunk commits in its own transaction, so these run without the slice's
+ * test transaction, on a database of their own because the rows they commit stay.
+ */
+@QueryCountTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:splitz-import;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=GROUPS",
+        "expense.import.chunk-size=2"
+})
+@Import({ExpenseImportServiceImpl.class, BalanceService.class, LedgerService.class, CurrentUser.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@RecordApplicationEvents
+class ExpenseImportServiceImplTest {
+    @Autowired ExpenseImportServiceImpl importService;
+    @Autowired UserRepository userRepository;
+    @Autowired GroupRepository groupRepository;
+    @Autowired MembershipRepository membershipRepository;
+    @Autowired EntityManager entityManager;
+    @Autowired ApplicationEvents events;
+
+    @Test
+    void splitCsv_handlesQuotedCommasAndEscapedQuotes(){
+        assertEquals(List.of("Dinner, \"Pho\" place", "42.50", "3", "2025-01-02"),
+                ExpenseImportServiceImpl.splitCsv("\"Dinner, \"\"Pho\"\" place\",42.50,3,2025-01-02"));
+    }
+
+    @Test
+    void splitCsv_keepsEmptyCells(){
+        assertEquals(List.of("", "1", "", ""), ExpenseImportServiceImpl.splitCsv(",1,,"));
+    }
+
+    @Test
+    void rows_areStoredInChunksOfTheConfiguredSize(){
+        User alice = saveUser("chunk-alice");
+        Group group = saveGroup("chunk-trip", alice);
+        StringBuilder csv = new StringBuilder("description,amount,paidBy,date\n");
+        for (int i = 1; i <= 5; i++) csv.append("row ").append(i).append(",1.00,").append(alice.getId()).append(",2025-01-0").append(i).append('\n');
+
+        ImportResultDto result = importCsv(alice, group, csv.toString());
+
+        assertEquals(new ImportResultDto(5, 0, List.of()), result);
+        assertThat(events.stream(ExpensesImportedEvent.class).map(ExpensesImportedEvent::count)).containsExactly(2, 2, 1);
+        assertEquals(5L, countExpenses(group));
+    }
+
+    @Test
+    void upperCaseHeader_isSkipped_underATurkishDefaultLocale(){
+        User alice = saveUser("header-alice");
+        Group group = saveGroup("header-trip", alice);
+        Locale defaultLocale = Locale.getDefault();
+        // the Turkish lower case of I is a dotless i
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            ImportResultDto result = importCsv(alice, group,
+                    "DESCRIPTION,AMOUNT,PAIDBY,DATE\ndinner,30.00," + alice.getId() + ",2025-01-01\n");
+
+            assertEquals(new ImportResultDto(1, 0, List.of()), result);
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void invalidRows_areReportedByLine_andTheRestImported() throws IOException {
+        User alice = saveUser("invalid-alice");
+        User outsider = saveUser("invalid-outsider");
+        Group group = saveGroup("invalid-trip", alice);
+        String ndjson = String.join("\n",
+                "{\"description\":\"ok\",\"amount\":\"4.00\",\"paidBy\":" + alice.getId() + ",\"date\":\"2025-01-01\"}",
+                "{\"description\":\" \",\"amount\":\"4.00\",\"paidBy\":" + alice.getId() + ",\"date\":\"2025-01-01\"}",
+                "{\"description\":\"negative\",\"amount\":\"-1\",\"paidBy\":" + alice.getId() + ",\"date\":\"2025-01-01\"}",
+                "{\"description\":\"fraction\",\"amount\":\"1.005\",\"paidBy\":" + alice.getId() + ",\"date\":\"2025-01-01\"}",
+                "{\"description\":\"outsider\",\"amount\":\"1.00\",\"paidBy\":" + outsider.getId() + ",\"date\":\"2025-01-01\"}",
+                "{\"description\":\"bad date\",\"amount\":\"1.00\",\"paidBy\":" + alice.getId() + ",\"date\":\"tomorrow\"}",
+                "not json");
+
+        ImportResultDto result = importService.importExpenses(caller(alice), group.getId(), body(ndjson), Format.NDJSON);
+
+        assertEquals(1, result.imported());
+        assertEquals(6, result.failed());
+        assertThat(result.errors()).extracting(ImportErrorDto::line).containsExactly(2L, 3L, 4L, 5L, 6L, 7L);
+        assertThat(result.errors().get(0).message()).isEqualTo("description is required");
+        assertThat(result.errors().get(3).message()).isEqualTo("paidBy is not a member of the group");
+        assertThat(result.errors().get(5).message()).startsWith("Unreadable row");
+    }
+
+    @Test
+    void chunkRejectedByTheDatabase_failsOnlyItsOwnRows(){
+        User alice = saveUser("rejected-alice");
+        Group group = saveGroup("rejected-trip", alice);
+        // passes validation but does not fit the description column
+        String tooLong = "x".repeat(300);
+        String csv = "kept before," + "1.00," + alice.getId() + ",2025-01-01\n"
+                + tooLong + ",1.00," + alice.getId() + ",2025-01-01\n"
+                + "kept after,2.00," + alice.getId() + ",2025-01-02\n";
+
+        ImportResultDto result = importCsv(alice, group, csv);
+
+        assertEquals(1, result.imported());
+        assertEquals(2, result.failed());
+        assertThat(result.errors()).extracting(ImportErrorDto::line).containsExactly(1L, 2L);
+        assertThat(result.errors()).allSatisfy(error -> assertThat(error.message()).startsWith("Chunk rejected by database"));
+        assertEquals(1L, countExpenses(group));
+        // the journal and the balances only saw the committed chunk
+        assertEquals(0L, entityManager.createQuery(
+                "select coalesce(sum(l.amountMinor), 0) from LedgerEntry l where l.group.id = :id", Long.class)
+                .setParameter("id", group.getId()).getSingleResult());
+        assertThat(userRepository.findUsersBalanceByGroupId(group.getId())).extracting(balance -> balance.net().signum()).containsOnly(0);
+        assertThat(events.stream(ExpensesImportedEvent.class).map(ExpensesImportedEvent::count)).containsExactly(1);
+    }
+
+    @Test
+    void committedChunks_moveEachMembersBalanceByTheirShares(){
+        User alice = saveUser("balance-alice");
+        User bob = saveUser("balance-bob");
+        Group group = saveGroup("balance-trip", alice, bob);
+        // alice pays 30 and bob 10, each split evenly: alice is owed 10, bob owes 10
+        String csv = "dinner,30.00," + alice.getId() + ",2025-01-01\n"
+                + "taxi,10.00," + bob.getId() + ",2025-01-02\n"
+                + "tip,0.02," + alice.getId() + ",2025-01-03\n";
+
+        ImportResultDto result = importCsv(alice, group, csv);
+
+        assertEquals(3, result.imported());
+        assertThat(userRepository.findUsersBalanceByGroupId(group.getId()))
+                .extracting(UserBalanceDto::name, balance -> balance.net().setScale(2))
+                .containsExactly(tuple("balance-alice", new BigDecimal("-10.01")), tuple("balance-bob", new BigDecimal("10.01")));
+    }
+
+    @Test
+    void callerOutsideTheGroup_isDenied_andNothingIsRead(){
+        User alice = saveUser("denied-alice");
+        User mallory = saveUser("denied-mallory");
+        Group group = saveGroup("denied-trip", alice);
+
+        assertThrows(AccessDeniedException.class, () ->
+                importCsv(mallory, group, "dinner,30.00," + alice.getId() + ",2025-01-01\n"));
+        assertEquals(0L, countExpenses(group));
+    }
+
+    private ImportResultDto importCsv(User caller, Group group, String csv) {
+        try {
+            return importService.importExpenses(caller(caller), group.getId(), body(csv), Format.CSV);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static Authentication caller(User user) {
+        return new UsernamePasswordAuthenticationToken(new AuthUser(user.getId(), user.getName()), null, List.of());
+    }
+
+    private static ByteArrayInputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private long countExpenses(Group group) {
+        return entityManager.createQuery("select count(e) from Expense e where e.group.id = :id", Long.class)
+                .setParameter("id", group.getId()).getSingleResult();
+    }
+
+    private Group saveGroup(String name, User... members) {
+        Group group = new Group();
+        group.setName(name);
+        groupRepository.save(group);
+        for (User member : members) membershipRepository.save(new Membership(null, member, group, Instant.now()));
+        return group;
+    }
+
+    private User saveUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setPassword("x");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.viet.splitz.group;
+
+import com.example.viet.splitz.auth.AuthUser;
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.membership.MembershipRepository;
+import com.example.viet.splitz.user.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GroupControllerTest {
+    @Mock GroupService groupService;
+    @Mock GroupExportService groupExportService;
+    @Mock GroupEventBroadcaster groupEventBroadcaster;
+    @Mock GroupRepository groupRepository;
+    @Mock UserRepository userRepository;
+    @Mock MembershipRepository membershipRepository;
+
+    private final Authentication alice = new UsernamePasswordAuthenticationToken(new AuthUser(1L, "alice"), null, List.of());
+    private final Authentication mallory = new UsernamePasswordAuthenticationToken(new AuthUser(9L, "mallory"), null, List.of());
+
+    private GroupController controller() {
+        return new GroupController(groupService, groupExportService, groupEventBroadcaster, groupRepository,
+                new CurrentUser(userRepository, membershipRepository));
+    }
+
+    @Test
+    void events_callerNotInGroup_isDeniedWithoutSubscribing() {
+        when(membershipRepository.existsByGroupIdAndUserId(1L, 9L)).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> controller().events(1L, mallory));
+        verifyNoInteractions(groupEventBroadcaster);
+    }
+
+    @Test
+    void export_callerNotInGroup_isDenied() {
+        when(membershipRepository.existsByGroupIdAndUserId(1L, 9L)).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> controller().export(1L, "csv", mallory));
+        verifyNoInteractions(groupExportService);
+    }
+
+    @Test
+    void expenses_callerNotInGroup_isDenied() {
+        when(membershipRepository.existsByGroupIdAndUserId(1L, 9L)).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> controller().expenses(1L, null, null, mallory));
+        verifyNoInteractions(groupService);
+    }
+
+    @Test
+    void balances_callerNotInGroup_isDenied() {
+        when(membershipRepository.existsByGroupIdAndUserId(1L, 9L)).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> controller().balances(1L, LocalDate.of(2025, 1, 31), mallory));
+        verifyNoInteractions(groupService);
+    }
+
+    @Test
+    void delete_callerNotInGroup_isDenied() {
+        when(membershipRepository.existsByGroupIdAndUserId(1L, 9L)).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> controller().delete(1L, mallory));
+        verifyNoInteractions(groupService);
+    }
+
+    @Test
+    void export_unknownFormat_isBadRequest() {
+        when(membershipRepository.existsByGroupIdAndUserId(1L, 1L)).thenReturn(true);
+
+        assertEquals(HttpStatus.BAD_REQUEST, controller().export(1L, "xml", alice).getStatusCode());
+        verifyNoInteractions(groupExportService);
+    }
+
+    @Test
+    void export_csv_writesOnlyWhenTheResponseBodyIsStreamed() throws Exception {
+        assertStreamed("csv", GroupExportService.Format.CSV, "text/csv");
+    }
+
+    @Test
+    void export_ndjson_writesOnlyWhenTheResponseBodyIsStreamed() throws Exception {
+        assertStreamed("NDJSON", GroupExportService.Format.NDJSON, "application/x-ndjson");
+    }
+
+    private void assertStreamed(String format, GroupExportService.Format expected, String mediaType) throws Exception {
+        when(membershipRepository.existsByGroupIdAndUserId(1L, 1L)).thenReturn(true);
+
+        ResponseEntity<StreamingResponseBody> response = controller().export(1L, format, alice);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(MediaType.parseMediaType(mediaType), response.getHeaders().getContentType());
+        assertEquals("attachment; filename=\"group-1." + expected.name().toLowerCase() + "\"",
+                response.getHeaders().getFirst("Content-Disposition"));
+        // nothing is read before the container asks for the body
+        verifyNoInteractions(groupExportService);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        verify(groupExportService).export(1L, expected, out);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.viet.splitz.group;
+
+import com.example.viet.splitz.user.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class GroupEventBroadcasterTest {
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final List<Runnable> tasks = new ArrayList<>();
+    private final GroupEventBroadcaster broadcaster = new GroupEventBroadcaster(userRepository, tasks::add, 4, Duration.ofMinutes(1));
+
+    @Test
+    void burstOfEvents_queriesBalancesOnce_andKeepsSubscriber(){
+        broadcaster.subscribe(1L, 3L);
+        broadcaster.onGroupChanged(new MemberAddedEvent(1L, 10L));
+        broadcaster.onGroupChanged(new MemberAddedEvent(1L, 11L));
+        runTasks();
+
+        verify(userRepository, times(1)).findUsersBalanceByGroupId(1L);
+        assertEquals(1, broadcaster.subscriberCount(1L));
+    }
+
+    @Test
+    void subscriberThatFallsAFullBufferBehind_isDisconnected(){
+        broadcaster.subscribe(1L, 3L);
+        broadcaster.subscribe(2L, 0L);
+        for (long i = 0; i < 10; i++) broadcaster.onGroupChanged(new MemberAddedEvent(1L, i));
+        runTasks();
+
+        assertEquals(0, broadcaster.subscriberCount(1L));
+        assertEquals(1, broadcaster.subscriberCount(2L));
+    }
+
+    @Test
+    void groupWithoutSubscribers_doesNoWork(){
+        broadcaster.onGroupChanged(new MemberAddedEvent(1L, 10L));
+
+        assertTrue(tasks.isEmpty());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void poolRefusingWork_dropsTheSubscriber_insteadOfFailingThePublisher(){
+        GroupEventBroadcaster saturated = new GroupEventBroadcaster(userRepository, task -> {
+            throw new RejectedExecutionException("full");
+        }, 4, Duration.ofMinutes(1));
+        saturated.subscribe(1L, 3L);
+
+        assertDoesNotThrow(() -> saturated.onGroupChanged(new MemberAddedEvent(1L, 10L)));
+        assertEquals(0, saturated.subscriberCount(1L));
+    }
+
+    private void runTasks() {
+        for (int i = 0; i < tasks.size(); i++) tasks.get(i).run();
+        tasks.clear();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.viet.splitz.group;
+
+import com.example.viet.splitz.expense.Expense;
+import com.example.viet.splitz.expense.ExpenseShare;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.membership.Membership;
+import com.example.viet.splitz.settlement.Settlement;
+import com.example.viet.splitz.support.QueryCountTest;
+import com.example.viet.splitz.support.QueryCounter;
+import com.example.viet.splitz.user.User;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@QueryCountTest
+@Import({GroupExportService.class, LedgerService.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+class GroupExportServiceTest {
+    @Autowired TestEntityManager em;
+    @Autowired QueryCounter queryCounter;
+    @Autowired GroupExportService groupExportService;
+    @Autowired LedgerService ledgerService;
+    @Autowired ObjectMapper objectMapper;
+
+    @Test
+    void csv_writesAHeaderAndOneQuotedRowPerExpenseAndSettlement_inLedgerOrder() {
+        Fixture trip = persistTrip("csv");
+
+        String[] lines = export(trip.group(), GroupExportService.Format.CSV).split("\n");
+
+        assertThat(lines).containsExactly(
+                "type,id,date,description,paid_by,received_by,amount",
+                "expense," + trip.expense().getId() + ",2025-01-01,\"dinner, drinks\",alice-csv,,30.00",
+                "settlement," + trip.settlement().getId() + ",2025-01-02,,bob-csv,alice-csv,5.00");
+    }
+
+    @Test
+    void csvCell_quotesSeparatorsQuotesAndLineBreaks() {
+        assertThat(GroupExportService.csvCell("dinner")).isEqualTo("dinner");
+        assertThat(GroupExportService.csvCell("dinner, drinks")).isEqualTo("\"dinner, drinks\"");
+        assertThat(GroupExportService.csvCell("the \"usual\"")).isEqualTo("\"the \"\"usual\"\"\"");
+        assertThat(GroupExportService.csvCell("line\nbreak")).isEqualTo("\"line\nbreak\"");
+        assertThat(GroupExportService.csvCell("carriage\rreturn")).isEqualTo("\"carriage\rreturn\"");
+        assertThat(GroupExportService.csvCell(null)).isEmpty();
+    }
+
+    @Test
+    void ndjson_writesOneJsonObjectPerLine() throws IOException {
+        Fixture trip = persistTrip("ndjson");
+
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : export(trip.group(), GroupExportService.Format.NDJSON).split("\n")) rows.add(objectMapper.readTree(line));
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(0).get("type").asText()).isEqualTo("expense");
+        assertThat(rows.get(0).get("description").asText()).isEqualTo("dinner, drinks");
+        assertThat(rows.get(0).get("amount").decimalValue()).isEqualByComparingTo("30.00");
+        assertThat(rows.get(1).get("type").asText()).isEqualTo("settlement");
+        assertThat(rows.get(1).get("receivedBy").asText()).isEqualTo("alice-ndjson");
+        assertThat(rows.get(1).get("date").asText()).isEqualTo("2025-01-02");
+    }
+
+    // one scrolled query whatever the size; rows go to the stream as they are read
+    @Test
+    void export_streamsFromOneQuery_regardlessOfSize() {
+        queryCounter.assertDoesNotScale(size -> {
+            User payer = persistUser("payer-" + size);
+            Group group = persistGroup("export-" + size, payer);
+            List<Expense> expenses = new ArrayList<>();
+            List<ExpenseShare> shares = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                Expense expense = em.persist(new Expense(null, "e" + i, BigDecimal.TEN, payer, LocalDate.of(2025, 1, 1), group));
+                expenses.add(expense);
+                shares.add(em.persist(new ExpenseShare(expense, payer, BigDecimal.TEN)));
+            }
+            ledgerService.recordExpenses(expenses, shares);
+            em.flush();
+            return () -> assertThat(export(group, GroupExportService.Format.NDJSON).lines()).hasSize(size);
+        });
+    }
+
+    private String export(Group group, GroupExportService.Format format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            groupExportService.export(group.getId(), format, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private record Fixture(Group group, Expense expense, Settlement settlement) {}
+
+    // alice pays 30 split with bob, then bob pays alice 5
+    private Fixture persistTrip(String suffix) {
+        User alice = persistUser("alice-" + suffix);
+        User bob = persistUser("bob-" + suffix);
+        Group group = persistGroup("trip-" + suffix, alice, bob);
+        Expense expense = em.persist(new Expense(null, "dinner, drinks", new BigDecimal("30.00"), alice, LocalDate.of(2025, 1, 1), group));
+        List<ExpenseShare> shares = List.of(em.persist(new ExpenseShare(expense, alice, new BigDecimal("15.00"))),
+                em.persist(new ExpenseShare(expense, bob, new BigDecimal("15.00"))));
+        Settlement settlement = em.persist(new Settlement(null, bob, group, alice, LocalDate.of(2025, 1, 2), new BigDecimal("5.00")));
+        ledgerService.recordExpenses(List.of(expense), shares);
+        ledgerService.recordSettlements(List.of(settlement));
+        em.flush();
+        em.clear();
+        return new Fixture(group, expense, settlement);
+    }
+
+    private Group persistGroup(String name, User... members) {
+        Group group = new Group();
+        group.setName(name);
+        em.persist(group);
+        for (User member : members) em.persist(new Membership(null, member, group, Instant.now()));
+        return group;
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setPassword("x");
+        return em.persist(user);
+    }
+}
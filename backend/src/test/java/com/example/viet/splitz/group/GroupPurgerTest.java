@@ -0,0 +1,125 @@
+package com.example.viet.splitz.group;
+
+import com.example.viet.splitz.balance.MemberBalance;
+import com.example.viet.splitz.expense.Expense;
+import com.example.viet.splitz.expense.ExpenseShare;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.membership.Membership;
+import com.example.viet.splitz.settlement.Settlement;
+import com.example.viet.splitz.support.QueryCountTest;
+import com.example.viet.splitz.support.QueryCounter;
+import com.example.viet.splitz.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@QueryCountTest
+@Import({GroupPurger.class, LedgerService.class})
+@TestPropertySource(properties = {"group.purge.async-threshold=30", "group.purge.chunk-size=4"})
+class GroupPurgerTest {
+    @Autowired TestEntityManager em;
+    @Autowired QueryCounter queryCounter;
+    @Autowired GroupPurger groupPurger;
+    @Autowired LedgerService ledgerService;
+
+    @TestConfiguration
+    static class Config {
+        @Bean
+        Executor applicationTaskExecutor() {
+            return Runnable::run;
+        }
+    }
+
+    @Test
+    void delete_smallGroup_removesEveryRow_andKeepsOtherGroups() {
+        User alice = persistUser("alice");
+        User bob = persistUser("bob");
+        Group doomed = seedGroup("doomed", alice, bob, 5);
+        Group kept = seedGroup("kept", alice, bob, 3);
+
+        boolean deferred = queryCounter.assertAtMost(9, () -> groupPurger.delete(doomed.getId()));
+
+        assertThat(deferred).isFalse();
+        assertThat(rows(doomed)).isZero();
+        assertThat(count("select count(g) from Group g where g.id = :groupId", doomed)).isZero();
+        assertThat(count("select count(e) from Expense e where e.group.id = :groupId", kept)).isEqualTo(3);
+    }
+
+    @Test
+    void delete_doesNotLoadEntities_orScaleWithExpenses() {
+        queryCounter.assertDoesNotScale(size -> {
+            Group group = seedGroup("group " + size, persistUser("payer " + size), persistUser("receiver " + size), size);
+            return () -> groupPurger.delete(group.getId());
+        });
+    }
+
+    @Test
+    void delete_largeGroup_detachesMembersNow_andPurgesLedgerInChunks() {
+        Group group = seedGroup("large", persistUser("alice"), persistUser("bob"), 50);
+        em.flush();
+
+        assertThat(groupPurger.delete(group.getId())).isTrue();
+        em.clear();
+        assertThat(count("select count(m) from Membership m where m.group.id = :groupId", group)).isZero();
+        assertThat(count("select count(e) from Expense e where e.group.id = :groupId", group)).isEqualTo(50);
+        assertThat(count("select count(l) from LedgerEntry l where l.group.id = :groupId", group)).isEqualTo(250);
+
+        groupPurger.purge(group.getId());
+        em.clear();
+
+        assertThat(rows(group)).isZero();
+        assertThat(count("select count(g) from Group g where g.id = :groupId", group)).isZero();
+    }
+
+    private long rows(Group group) {
+        return count("select count(e) from Expense e where e.group.id = :groupId", group)
+                + count("select count(s) from ExpenseShare s where s.group.id = :groupId", group)
+                + count("select count(s) from Settlement s where s.group.id = :groupId", group)
+                + count("select count(m) from Membership m where m.group.id = :groupId", group)
+                + count("select count(b) from MemberBalance b where b.group.id = :groupId", group)
+                + count("select count(l) from LedgerEntry l where l.group.id = :groupId", group);
+    }
+
+    private long count(String jpql, Group group) {
+        return em.getEntityManager().createQuery(jpql, Long.class).setParameter("groupId", group.getId()).getSingleResult();
+    }
+
+    // expenses paid by the payer and shared equally, plus one settlement per expense, all journaled
+    private Group seedGroup(String name, User payer, User receiver, int expenses) {
+        Group group = new Group();
+        group.setName(name);
+        em.persist(group);
+        em.persist(new Membership(null, payer, group, Instant.now()));
+        em.persist(new Membership(null, receiver, group, Instant.now()));
+        em.persist(new MemberBalance(group, payer));
+        em.persist(new MemberBalance(group, receiver));
+        for (int i = 0; i < expenses; i++) {
+            Expense expense = em.persist(new Expense(null, "dinner " + i, BigDecimal.TEN, payer, LocalDate.of(2025, 1, 1).plusDays(i), group));
+            ExpenseShare payerShare = em.persist(new ExpenseShare(expense, payer, new BigDecimal("5.00")));
+            ExpenseShare receiverShare = em.persist(new ExpenseShare(expense, receiver, new BigDecimal("5.00")));
+            Settlement settlement = em.persist(new Settlement(null, receiver, group, payer, LocalDate.of(2025, 1, 1).plusDays(i), BigDecimal.ONE));
+            ledgerService.recordExpenses(List.of(expense), List.of(payerShare, receiverShare));
+            ledgerService.recordSettlements(List.of(settlement));
+        }
+        return group;
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setPassword("x");
+        return em.persist(user);
+    }
+}
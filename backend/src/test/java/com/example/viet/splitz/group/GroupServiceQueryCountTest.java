@@ -0,0 +1,138 @@
+package com.example.viet.splitz.group;
+
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.balance.BalanceService;
+import com.example.viet.splitz.balance.BalanceSnapshotService;
+import com.example.viet.splitz.balance.MemberBalance;
+import com.example.viet.splitz.expense.Expense;
+import com.example.viet.splitz.group.dtos.GroupIdResDto;
+import com.example.viet.splitz.group.dtos.GroupListDto;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.membership.Membership;
+import com.example.viet.splitz.support.QueryCountTest;
+import com.example.viet.splitz.support.QueryCounter;
+import com.example.viet.splitz.user.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@QueryCountTest
+@Import({GroupService.class, BalanceService.class, BalanceSnapshotService.class, LedgerService.class, CurrentUser.class,
+        GroupVersionBumper.class})
+class GroupServiceQueryCountTest {
+    @Autowired TestEntityManager em;
+    @Autowired QueryCounter queryCounter;
+    @Autowired GroupService groupService;
+    @Autowired GroupRepository groupRepository;
+    @MockitoBean GroupPurger groupPurger;
+
+    @Test
+    void list_usesOneStatement_regardlessOfGroupCount() {
+        User alice = persistUser("alice");
+        User bob = persistUser("bob");
+        for (int i = 0; i < 25; i++) {
+            Group group = persistGroup("group " + i);
+            persistMember(group, alice, new BigDecimal("15.00"), new BigDecimal("30.00"));
+            persistMember(group, bob, new BigDecimal("15.00"), BigDecimal.ZERO);
+        }
+
+        // one set-based query for every group
+        List<GroupListDto> groups = queryCounter.assertAtMost(1, () -> groupService.list(alice.getId()));
+
+        assertThat(groups).hasSize(25);
+        assertThat(groups.get(0).members()).isEqualTo(2L);
+        assertThat(groups.get(0).yourShare()).isEqualByComparingTo("-15.00");
+    }
+
+    @Test
+    void list_doesNotScaleWithGroups() {
+        queryCounter.assertDoesNotScale(size -> {
+            User user = persistUser("user " + size);
+            for (int i = 0; i < size; i++) {
+                persistMember(persistGroup("group " + size + "-" + i), user, BigDecimal.ZERO, BigDecimal.ZERO);
+            }
+            return () -> groupService.list(user.getId());
+        });
+    }
+
+    @Test
+    void get_buildsDetailFromProjections_withoutPerExpenseLoads() {
+        User alice = persistUser("alice");
+        User bob = persistUser("bob");
+        Group group = persistGroup("trip");
+        persistMember(group, alice, new BigDecimal("500.00"), new BigDecimal("500.00"));
+        persistMember(group, bob, new BigDecimal("500.00"), new BigDecimal("500.00"));
+        for (int i = 0; i < 100; i++) {
+            User payer = i % 2 == 0 ? alice : bob;
+            em.persist(new Expense(null, "expense " + i, BigDecimal.TEN, payer, LocalDate.of(2025, 1, 1).plusDays(i), group));
+        }
+
+        // name, members, expenses, balances; no entity is hydrated
+        GroupIdResDto dto = queryCounter.assertAtMost(4, () -> groupService.get(group.getId()));
+
+        assertThat(dto.expenses()).hasSize(100);
+        assertThat(dto.expenses().get(0).paidBy()).isEqualTo("bob");
+        assertThat(dto.members()).extracting("name").containsExactly("alice", "bob");
+        assertThat(queryCounter.count(() -> groupService.get(group.getId())).entityLoads()).isZero();
+    }
+
+    @Test
+    void get_doesNotScaleWithMembersOrExpenses() {
+        queryCounter.assertDoesNotScale(size -> {
+            Group group = persistGroup("group " + size);
+            for (int i = 0; i < size; i++) {
+                User user = persistUser("member " + size + "-" + i);
+                persistMember(group, user, BigDecimal.ZERO, BigDecimal.ZERO);
+                em.persist(new Expense(null, "expense " + i, BigDecimal.TEN, user, LocalDate.of(2025, 1, 1).plusDays(i), group));
+            }
+            return () -> groupService.get(group.getId());
+        });
+    }
+
+    @Test
+    void addMember_bumpsGroupVersion(){
+        User alice = persistUser("alice");
+        persistUser("bob");
+        Group group = persistGroup("trip");
+        persistMember(group, alice, BigDecimal.ZERO, BigDecimal.ZERO);
+        em.flush();
+        em.clear();
+        long before = groupRepository.findVersionById(group.getId()).orElseThrow();
+
+        assertThat(groupService.addMember(group.getId(), "bob")).isTrue();
+        em.flush();
+        em.clear();
+
+        assertThat(groupRepository.findVersionById(group.getId())).contains(before + 1);
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setPassword("x");
+        return em.persist(user);
+    }
+
+    private Group persistGroup(String name) {
+        Group group = new Group();
+        group.setName(name);
+        return em.persist(group);
+    }
+
+    private void persistMember(Group group, User user, BigDecimal owed, BigDecimal paid) {
+        em.persist(new Membership(null, user, group, Instant.now()));
+        MemberBalance balance = new MemberBalance(group, user);
+        balance.setOwed(owed);
+        balance.setPaid(paid);
+        em.persist(balance);
+    }
+}
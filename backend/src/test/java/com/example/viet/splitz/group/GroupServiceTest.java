@@ -1,16 +1,34 @@
 package com.example.viet.splitz.group;
 
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.balance.BalanceService;
+import com.example.viet.splitz.balance.BalanceSnapshotService;
 import com.example.viet.splitz.expense.ExpenseRepository;
+import com.example.viet.splitz.expense.dtos.ExpensePageDto;
+import com.example.viet.splitz.expense.dtos.ExpenseResDto;
 import com.example.viet.splitz.membership.MembershipRepository;
 import com.example.viet.splitz.user.UserRepository;
+import com.example.viet.splitz.util.InvalidCursorException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.servlet.mvc.annotation.ResponseStatusExceptionResolver;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -20,6 +38,11 @@ class GroupServiceTest {
     @Mock UserRepository userRepository;
     @Mock ExpenseRepository expenseRepository;
     @Mock MembershipRepository membershipRepository;
+    @Mock BalanceService balanceService;
+    @Mock CurrentUser currentUser;
+    @Mock ApplicationEventPublisher eventPublisher;
+    @Mock GroupPurger groupPurger;
+    @Mock BalanceSnapshotService balanceSnapshotService;
     @InjectMocks GroupService groupService;
     @Test
     void createGroup_nameExisted_throws(){
@@ -29,4 +52,29 @@ class GroupServiceTest {
                 () -> groupService.create("group name", authentication));
         assertEquals("Group name already exists", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void expenses_moreRowsThanLimit_returnsCursorOfLastItem(){
+        List<ExpenseResDto> rows = List.of(
+                new ExpenseResDto(9L, "c", BigDecimal.ONE, "alice", LocalDate.of(2025, 3, 2)),
+                new ExpenseResDto(7L, "b", BigDecimal.ONE, "alice", LocalDate.of(2025, 3, 1)),
+                new ExpenseResDto(8L, "a", BigDecimal.ONE, "bob", LocalDate.of(2025, 2, 28)));
+        when(expenseRepository.findExpensePageAfter(eq(1L), eq(LocalDate.of(2025, 3, 5)), eq(12L), eq(Limit.of(3))))
+                .thenReturn(rows);
+
+        ExpensePageDto page = groupService.expenses(1L, "2025-03-05,12", 2);
+
+        assertEquals(2, page.items().size());
+        assertEquals("2025-03-01,7", page.next());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"yesterday", "2025-13-01,5", "2025-01-01,x", "2025-01-01,"})
+    void expenses_malformedCursor_isAnsweredWith400(String after){
+        InvalidCursorException exception = assertThrows(InvalidCursorException.class, () -> groupService.expenses(1L, after, 10));
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new ResponseStatusExceptionResolver().resolveException(new MockHttpServletRequest(), response, null, exception);
+        assertEquals(400, response.getStatus());
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.viet.splitz.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+    private static final String SECRET = "03705944e0cc6b9d28d7b840beb0d5dd82f2a8228104d6b7a357c8d1c7eaae89";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void parse_sameTokenTwice_secondCallIsCacheHit(){
+        JwtService jwtService = new JwtService(SECRET, 30, 100, registry);
+        String token = jwtService.issueAccess(7L, "alice");
+
+        Claims first = jwtService.parse(token);
+        Claims second = jwtService.parse(token);
+
+        assertEquals("alice", second.getSubject());
+        assertEquals(7, ((Number) second.get(JwtService.USER_ID_CLAIM)).intValue());
+        assertSame(first, second);
+        assertEquals(1.0, registry.get("jwt.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1, registry.get("jwt.verify").timer().count());
+    }
+
+    @Test
+    void parse_cacheFullOfLiveTokens_stillCachesNewOnes(){
+        JwtService jwtService = new JwtService(SECRET, 30, 10, registry);
+        String latest = null;
+        for (long userId = 1; userId <= 50; userId++) {
+            latest = jwtService.issueAccess(userId, "user" + userId);
+            jwtService.parse(latest);
+        }
+
+        jwtService.parse(latest);
+
+        assertEquals(1.0, registry.get("jwt.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(50, registry.get("jwt.verify").timer().count());
+    }
+
+    @Test
+    void parse_expiredToken_isRejected(){
+        JwtService jwtService = new JwtService(SECRET, -1, 100, registry);
+        String token = jwtService.issueAccess(7L, "alice");
+
+        assertThrows(ExpiredJwtException.class, () -> jwtService.parse(token));
+        assertEquals(0.0, registry.get("jwt.cache.size").gauge().value());
+    }
+
+    @Test
+    void parse_tokenSignedWithOtherKey_isRejected(){
+        JwtService jwtService = new JwtService(SECRET, 30, 100, registry);
+        JwtService other = new JwtService(SECRET.replace('0', 'f'), 30, 100, new SimpleMeterRegistry());
+        String token = other.issueAccess(7L, "alice");
+
+        assertThrows(SignatureException.class, () -> jwtService.parse(token));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.viet.splitz.ledger;
+
+import com.example.viet.splitz.balance.BalanceService;
+import com.example.viet.splitz.expense.Expense;
+import com.example.viet.splitz.expense.ExpenseShare;
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.membership.Membership;
+import com.example.viet.splitz.settlement.Settlement;
+import com.example.viet.splitz.support.QueryCountTest;
+import com.example.viet.splitz.user.User;
+import com.example.viet.splitz.user.UserRepository;
+import com.example.viet.splitz.user.dtos.UserBalanceDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@QueryCountTest
+@Import({LedgerService.class, BalanceService.class})
+class LedgerServiceTest {
+    @Autowired TestEntityManager em;
+    @Autowired LedgerService ledgerService;
+    @Autowired BalanceService balanceService;
+    @Autowired UserRepository userRepository;
+
+    @Test
+    void legsOfEachSourceSumToZero_andRebuildMatchesTheNetConvention() {
+        User alice = persistUser("alice");
+        User bob = persistUser("bob");
+        Group trip = persistGroup(alice, bob);
+        // alice pays 30 split evenly, then bob pays alice back 5
+        Expense expense = em.persist(new Expense(null, "dinner", new BigDecimal("30.00"), alice, LocalDate.of(2025, 1, 1), trip));
+        List<ExpenseShare> shares = List.of(em.persist(new ExpenseShare(expense, alice, new BigDecimal("15.00"))),
+                em.persist(new ExpenseShare(expense, bob, new BigDecimal("15.00"))));
+        Settlement settlement = em.persist(new Settlement(null, bob, trip, alice, LocalDate.of(2025, 1, 2), new BigDecimal("5.00")));
+
+        ledgerService.recordExpenses(List.of(expense), shares);
+        ledgerService.recordSettlements(List.of(settlement));
+        em.flush();
+        balanceService.rebuild(List.of(trip.getId()));
+        em.clear();
+
+        assertThat(em.getEntityManager()
+                .createQuery("select sum(l.amountMinor) from LedgerEntry l where l.group.id = :groupId "
+                        + "group by l.sourceType, l.sourceId", Long.class)
+                .setParameter("groupId", trip.getId()).getResultList()).containsOnly(0L);
+        assertThat(userRepository.findUsersBalanceByGroupId(trip.getId()))
+                .extracting(UserBalanceDto::name, balance -> balance.net().setScale(2))
+                .containsExactly(tuple("alice", new BigDecimal("-10.00")), tuple("bob", new BigDecimal("10.00")));
+    }
+
+    @Test
+    void appendMissing_journalsRowsWrittenAroundTheService_once() {
+        User alice = persistUser("alice");
+        User bob = persistUser("bob");
+        Group trip = persistGroup(alice, bob);
+        Expense expense = em.persist(new Expense(null, "dinner", BigDecimal.TEN, alice, LocalDate.of(2025, 1, 1), trip));
+        em.persist(new ExpenseShare(expense, alice, new BigDecimal("5.00")));
+        em.persist(new ExpenseShare(expense, bob, new BigDecimal("5.00")));
+        em.persist(new Settlement(null, bob, trip, alice, LocalDate.of(2025, 1, 2), BigDecimal.ONE));
+        em.flush();
+
+        // the payer and two shares, then both sides of the settlement
+        assertThat(ledgerService.appendMissing()).isEqualTo(5);
+        assertThat(ledgerService.appendMissing()).isZero();
+    }
+
+    private Group persistGroup(User... members) {
+        Group group = new Group();
+        group.setName("trip");
+        em.persist(group);
+        for (User member : members) em.persist(new Membership(null, member, group, Instant.now()));
+        return group;
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setPassword("x");
+        return em.persist(user);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.viet.splitz.settlement;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DebtSimplifierTest {
+    @Test
+    void simplify_settlesEveryBalance_withAtMostNMinusOneTransfers(){
+        long[] net = {5000, -3000, -2500, 1000, -500};
+        DebtSimplifier.Plan plan = DebtSimplifier.simplify(net);
+
+        long[] after = net.clone();
+        for (int i = 0; i < plan.size(); i++) {
+            assertTrue(plan.cents()[i] > 0);
+            after[plan.from()[i]] -= plan.cents()[i];
+            after[plan.to()[i]] += plan.cents()[i];
+        }
+        assertArrayEquals(new long[5], after);
+        assertTrue(plan.size() <= net.length - 1);
+    }
+
+    @Test
+    void simplify_matchesLargestDebtorWithLargestCreditorFirst(){
+        DebtSimplifier.Plan plan = DebtSimplifier.simplify(new long[]{100, -40, 300, -360});
+
+        assertEquals(2, plan.from()[0]);
+        assertEquals(3, plan.to()[0]);
+        assertEquals(300, plan.cents()[0]);
+    }
+
+    @Test
+    void simplify_settledGroup_returnsEmptyPlan(){
+        assertEquals(0, DebtSimplifier.simplify(new long[]{0, 0, 0}).size());
+        assertEquals(0, DebtSimplifier.simplify(new long[0]).size());
+    }
+
+    @Test
+    void simplify_manyMembers_balancesToZero(){
+        Random random = new Random(42);
+        long[] net = new long[500];
+        long sum = 0;
+        for (int i = 0; i < net.length - 1; i++) {
+            net[i] = random.nextInt(200_000) - 100_000;
+            sum += net[i];
+        }
+        net[net.length - 1] = -sum;
+
+        DebtSimplifier.Plan plan = DebtSimplifier.simplify(net);
+        for (int i = 0; i < plan.size(); i++) {
+            net[plan.from()[i]] -= plan.cents()[i];
+            net[plan.to()[i]] += plan.cents()[i];
+        }
+        for (long value : net) assertEquals(0, value);
+        assertTrue(plan.size() < 500);
+    }
+}
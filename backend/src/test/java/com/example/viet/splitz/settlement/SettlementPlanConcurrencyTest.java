@@ -0,0 +1,108 @@
+package com.example.viet.splitz.settlement;
+
+import com.example.viet.splitz.auth.AuthUser;
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.balance.BalanceService;
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.group.GroupRepository;
+import com.example.viet.splitz.group.GroupVersionBumper;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.membership.Membership;
+import com.example.viet.splitz.settlement.dtos.TransferDto;
+import com.example.viet.splitz.support.QueryCountTest;
+import com.example.viet.splitz.user.User;
+import com.example.viet.splitz.user.UserRepository;
+import com.example.viet.splitz.user.dtos.UserBalanceDto;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two executions of the same plan race on committed rows and the group's
+ * row lock, so these run without the slice's test transaction, on a database
+ * of their own.
+ */
+@QueryCountTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties =
+        "spring.datasource.url=jdbc:h2:mem:splitz-plans;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;NON_KEYWORDS=GROUPS;LOCK_TIMEOUT=10000")
+@Import({SettlementService.class, BalanceService.class, LedgerService.class, CurrentUser.class, GroupVersionBumper.class})
+class SettlementPlanConcurrencyTest {
+    @Autowired SettlementService settlementService;
+    @Autowired BalanceService balanceService;
+    @Autowired GroupRepository groupRepository;
+    @Autowired UserRepository userRepository;
+    @Autowired EntityManager entityManager;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentExecutions_settleTheGroupOnce() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        User alice = tx.execute(status -> persistUser("plan-alice"));
+        User bob = tx.execute(status -> persistUser("plan-bob"));
+        Group trip = tx.execute(status -> persistGroup("plan-trip", alice, bob));
+        // alice paid 10 split evenly: bob owes her 5
+        tx.executeWithoutResult(status -> balanceService.recordExpense(entityManager.getReference(Group.class, trip.getId()),
+                entityManager.getReference(User.class, alice.getId()), new BigDecimal("10.00"),
+                Map.of(alice.getId(), new BigDecimal("5.00"), bob.getId(), new BigDecimal("5.00"))));
+        Authentication caller = new UsernamePasswordAuthenticationToken(new AuthUser(alice.getId(), "plan-alice"), null, List.of());
+
+        List<CompletableFuture<List<TransferDto>>> executions = tx.execute(status -> {
+            // both requests arrive while another change to the group is still open
+            groupRepository.lockById(trip.getId());
+            List<CompletableFuture<List<TransferDto>>> running = List.of(
+                    CompletableFuture.supplyAsync(() -> settlementService.executePlan(caller, trip.getId())),
+                    CompletableFuture.supplyAsync(() -> settlementService.executePlan(caller, trip.getId())));
+            for (CompletableFuture<List<TransferDto>> execution : running) {
+                assertThat(execution).failsWithin(Duration.ofMillis(300)).withThrowableThat().isInstanceOf(TimeoutException.class);
+            }
+            return running;
+        });
+
+        List<Integer> transfers = List.of(executions.get(0).get(10, TimeUnit.SECONDS).size(),
+                executions.get(1).get(10, TimeUnit.SECONDS).size());
+        assertThat(transfers).containsExactlyInAnyOrder(1, 0);
+        assertThat(entityManager.createQuery("select count(s) from Settlement s where s.group.id = :groupId", Long.class)
+                .setParameter("groupId", trip.getId()).getSingleResult()).isEqualTo(1L);
+        assertThat(userRepository.findUsersBalanceByGroupId(trip.getId())).extracting(UserBalanceDto::net)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsOnly(BigDecimal.ZERO);
+    }
+
+    private Group persistGroup(String name, User... members) {
+        Group group = new Group();
+        group.setName(name);
+        entityManager.persist(group);
+        for (User member : members) {
+            entityManager.persist(new Membership(null, entityManager.getReference(User.class, member.getId()), group, Instant.now()));
+        }
+        return group;
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setPassword("x");
+        entityManager.persist(user);
+        return user;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.viet.splitz.settlement;
+
+import com.example.viet.splitz.auth.AuthUser;
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.balance.BalanceService;
+import com.example.viet.splitz.group.GroupRepository;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.membership.MembershipRepository;
+import com.example.viet.splitz.user.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SettlementServiceTest {
+    @Mock SettlementRepository settlementRepository;
+    @Mock UserRepository userRepository;
+    @Mock GroupRepository groupRepository;
+    @Mock MembershipRepository membershipRepository;
+    @Mock BalanceService balanceService;
+    @Mock LedgerService ledgerService;
+    @Mock ApplicationEventPublisher eventPublisher;
+
+    private final Authentication mallory = new UsernamePasswordAuthenticationToken(new AuthUser(9L, "mallory"), null, List.of());
+
+    private SettlementService settlementService() {
+        return new SettlementService(settlementRepository, userRepository, groupRepository, balanceService, ledgerService,
+                new CurrentUser(userRepository, membershipRepository), eventPublisher);
+    }
+
+    @Test
+    void executePlan_callerNotInGroup_isDeniedBeforeAnythingIsWritten() {
+        when(membershipRepository.existsByGroupIdAndUserId(1L, 9L)).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> settlementService().executePlan(mallory, 1L));
+        verifyNoInteractions(settlementRepository, ledgerService, balanceService, eventPublisher);
+    }
+
+    @Test
+    void plan_callerNotInGroup_isDenied() {
+        when(membershipRepository.existsByGroupIdAndUserId(1L, 9L)).thenReturn(false);
+
+        assertThrows(AccessDeniedException.class, () -> settlementService().plan(mallory, 1L));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.viet.splitz.support;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Counts the statements and entity loads of one service call. The
+ * persistence context is flushed and cleared first, so seeded rows are not
+ * served from memory and the numbers match a fresh request.
+ */
+public class QueryCounter {
+    public record Count(long statements, long entityLoads) {}
+
+    static final int SMALL = 2;
+    static final int LARGE = 20;
+
+    private final EntityManager entityManager;
+    private final Statistics statistics;
+
+    public QueryCounter(EntityManager entityManager, EntityManagerFactory entityManagerFactory) {
+        this.entityManager = entityManager;
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.statistics.setStatisticsEnabled(true);
+    }
+
+    public Count count(Runnable call) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        call.run();
+        return new Count(statistics.getPrepareStatementCount(), statistics.getEntityLoadCount());
+    }
+
+    // runs the call and fails if it needed more than maxStatements
+    public <T> T assertAtMost(int maxStatements, Supplier<T> call) {
+        Object[] result = new Object[1];
+        Count count = count(() -> result[0] = call.get());
+        assertThat(count.statements())
+                .as("statements run by the call")
+                .isLessThanOrEqualTo(maxStatements);
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+
+    /**
+     * Seeds the scenario at a small and a large size and fails when the
+     * statement or entity-load count of the returned call grows with it,
+     * which is what an N+1 looks like. Each invocation of {@code scenario}
+     * must seed its own rows.
+     */
+    public void assertDoesNotScale(IntFunction<Runnable> scenario) {
+        Count small = count(scenario.apply(SMALL));
+        Count large = count(scenario.apply(LARGE));
+        assertThat(large.statements())
+                .as("statements at size %d vs %d (N+1?)", LARGE, SMALL)
+                .isEqualTo(small.statements());
+        assertThat(large.entityLoads())
+                .as("entity loads at size %d vs %d (N+1?)", LARGE, SMALL)
+                .isEqualTo(small.entityLoads());
+    }
+}
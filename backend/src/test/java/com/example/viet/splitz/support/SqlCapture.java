@@ -0,0 +1,33 @@
+package com.example.viet.splitz.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records the SQL Hibernate sends, JPQL-generated and native alike. Register
+ * it with {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}
+ * and wrap the call under test in {@link #of(Runnable)}.
+ */
+public class SqlCapture implements StatementInspector {
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        List<String> captured = CAPTURED.get();
+        if (captured != null) captured.add(sql);
+        return sql;
+    }
+
+    public static List<String> of(Runnable call) {
+        List<String> captured = new ArrayList<>();
+        CAPTURED.set(captured);
+        try {
+            call.run();
+        } finally {
+            CAPTURED.remove();
+        }
+        return captured;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.viet.splitz.user;
+
+import com.example.viet.splitz.auth.AuthUser;
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.membership.MembershipRepository;
+import com.example.viet.splitz.user.dtos.UserDashboardDto;
+import com.example.viet.splitz.user.dtos.UserDashboardSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserControllerTest {
+    @Mock UserService userService;
+    @Mock UserRepository userRepository;
+    @Mock MembershipRepository membershipRepository;
+
+    private final Authentication alice = new UsernamePasswordAuthenticationToken(new AuthUser(1L, "alice"), null, List.of());
+    private final UserDashboardSnapshot snapshot =
+            new UserDashboardSnapshot(new UserDashboardDto(List.of(), List.of("trip"), new BigDecimal("12.50")), "abc123");
+
+    private UserController controller() {
+        return new UserController(userService, new CurrentUser(userRepository, membershipRepository));
+    }
+
+    @Test
+    void dashboard_matchingIfNoneMatch_isNotModifiedWithoutBody() {
+        when(userService.getDashboardSnapshot(1L)).thenReturn(snapshot);
+
+        ResponseEntity<UserDashboardDto> response = controller().getUserDashboard(alice, request("\"abc123\""));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"abc123\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+    }
+
+    @Test
+    void dashboard_staleIfNoneMatch_servesTheDashboardAndItsTag() {
+        when(userService.getDashboardSnapshot(1L)).thenReturn(snapshot);
+
+        ResponseEntity<UserDashboardDto> response = controller().getUserDashboard(alice, request("\"older\""));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"abc123\"", response.getHeaders().getETag());
+        assertEquals(snapshot.dashboard(), response.getBody());
+    }
+
+    @Test
+    void delete_self_deletesTheCaller() {
+        ResponseEntity<String> response = controller().createNewUser(1L, alice);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        verify(userService).deleteUserById(1L);
+    }
+
+    @Test
+    void delete_someoneElse_isDenied() {
+        assertThrows(AccessDeniedException.class, () -> controller().createNewUser(2L, alice));
+        verifyNoInteractions(userService);
+    }
+
+    private ServletWebRequest request(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/user/dashboard");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        return new ServletWebRequest(request);
+    }
+}
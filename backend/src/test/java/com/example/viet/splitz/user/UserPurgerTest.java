@@ -0,0 +1,134 @@
+package com.example.viet.splitz.user;
+
+import com.example.viet.splitz.balance.BalanceService;
+import com.example.viet.splitz.balance.MemberBalance;
+import com.example.viet.splitz.expense.Expense;
+import com.example.viet.splitz.expense.ExpenseShare;
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.ledger.LedgerService;
+import com.example.viet.splitz.membership.Membership;
+import com.example.viet.splitz.settlement.Settlement;
+import com.example.viet.splitz.support.QueryCountTest;
+import com.example.viet.splitz.support.QueryCounter;
+import com.example.viet.splitz.user.dtos.UserBalanceDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@QueryCountTest
+@Import({UserPurger.class, BalanceService.class, LedgerService.class})
+class UserPurgerTest {
+    @Autowired TestEntityManager em;
+    @Autowired QueryCounter queryCounter;
+    @Autowired UserPurger userPurger;
+    @Autowired UserRepository userRepository;
+    @Autowired LedgerService ledgerService;
+
+    @Test
+    void delete_removesEverySourceTheUserTookPartIn_andRebuildsGroupBalances() {
+        User alice = persistUser("alice");
+        User bob = persistUser("bob");
+        User carol = persistUser("carol");
+        Group trip = new Group();
+        trip.setName("trip");
+        em.persist(trip);
+        for (User user : new User[]{alice, bob, carol}) {
+            em.persist(new Membership(null, user, trip, Instant.now()));
+            em.persist(new MemberBalance(trip, user));
+        }
+        // alice pays 30 and carol pays 12, each split three ways; alice pays 8 split with bob; carol settles 5 with alice
+        persistExpense(trip, alice, "30.00", alice, bob, carol);
+        persistExpense(trip, carol, "12.00", alice, bob, carol);
+        persistExpense(trip, alice, "8.00", alice, bob);
+        Settlement settlement = em.persist(new Settlement(null, carol, trip, alice, LocalDate.of(2025, 1, 2), new BigDecimal("5.00")));
+        ledgerService.recordSettlements(List.of(settlement));
+
+        em.flush();
+        userPurger.delete(carol.getId());
+        em.clear();
+
+        assertThat(userRepository.existsById(carol.getId())).isFalse();
+        assertThat(em.getEntityManager()
+                .createQuery("select count(m) from Membership m where m.group.id = :groupId", Long.class)
+                .setParameter("groupId", trip.getId()).getSingleResult()).isEqualTo(2);
+        // only the expense carol had no part in is left: alice paid 8 and owes 4, bob owes 4
+        assertThat(userRepository.findUsersBalanceByGroupId(trip.getId()))
+                .extracting(UserBalanceDto::name, balance -> balance.net().setScale(2))
+                .containsExactly(tuple("alice", new BigDecimal("-4.00")), tuple("bob", new BigDecimal("4.00")));
+        assertThat(em.getEntityManager()
+                .createQuery("select count(s) from ExpenseShare s where s.expense.group.id = :groupId", Long.class)
+                .setParameter("groupId", trip.getId()).getSingleResult()).isEqualTo(2);
+        // every remaining source still sums to zero
+        assertThat(em.getEntityManager()
+                .createQuery("select l.amountMinor from LedgerEntry l where l.group.id = :groupId", Long.class)
+                .setParameter("groupId", trip.getId()).getResultList()).containsExactlyInAnyOrder(-800L, 400L, 400L);
+        assertThat(em.getEntityManager()
+                .createQuery("select sum(l.amountMinor) from LedgerEntry l group by l.sourceType, l.sourceId", Long.class)
+                .getResultList()).containsOnly(0L);
+    }
+
+    @Test
+    void delete_userWithOnlySettlements_removesThemWhole() {
+        User alice = persistUser("alice");
+        User bob = persistUser("bob");
+        Group trip = new Group();
+        trip.setName("trip");
+        em.persist(trip);
+        for (User user : new User[]{alice, bob}) {
+            em.persist(new Membership(null, user, trip, Instant.now()));
+            em.persist(new MemberBalance(trip, user));
+        }
+        Settlement settlement = em.persist(new Settlement(null, bob, trip, alice, LocalDate.of(2025, 1, 2), new BigDecimal("5.00")));
+        ledgerService.recordSettlements(List.of(settlement));
+
+        em.flush();
+        userPurger.delete(bob.getId());
+        em.clear();
+
+        assertThat(em.getEntityManager().createQuery("select count(l) from LedgerEntry l", Long.class).getSingleResult()).isZero();
+        assertThat(userRepository.findUsersBalanceByGroupId(trip.getId()))
+                .extracting(balance -> balance.net().signum()).containsExactly(0);
+    }
+
+    @Test
+    void delete_doesNotScaleWithUsersLedger() {
+        queryCounter.assertDoesNotScale(size -> {
+            User payer = persistUser("payer " + size);
+            User other = persistUser("other " + size);
+            for (int i = 0; i < size; i++) {
+                Group group = new Group();
+                group.setName("group " + size + "-" + i);
+                em.persist(group);
+                em.persist(new Membership(null, payer, group, Instant.now()));
+                em.persist(new Membership(null, other, group, Instant.now()));
+                persistExpense(group, payer, "10.00", payer, other);
+            }
+            return () -> userPurger.delete(payer.getId());
+        });
+    }
+
+    private void persistExpense(Group group, User payer, String amount, User... members) {
+        Expense expense = em.persist(new Expense(null, "dinner", new BigDecimal(amount), payer, LocalDate.of(2025, 1, 1), group));
+        BigDecimal share = new BigDecimal(amount).divide(BigDecimal.valueOf(members.length));
+        List<ExpenseShare> shares = new ArrayList<>();
+        for (User member : members) shares.add(em.persist(new ExpenseShare(expense, member, share)));
+        ledgerService.recordExpenses(List.of(expense), shares);
+    }
+
+    private User persistUser(String name) {
+        User user = new User();
+        user.setName(name);
+        user.setPassword("x");
+        return em.persist(user);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.viet.splitz.user.impl;
+
+import com.example.viet.splitz.activity.ActivityService;
+import com.example.viet.splitz.activity.dtos.ActivityPageDto;
+import com.example.viet.splitz.auth.CurrentUser;
+import com.example.viet.splitz.group.Group;
+import com.example.viet.splitz.membership.MembershipRepository;
+import com.example.viet.splitz.user.UserPurger;
+import com.example.viet.splitz.user.UserRepository;
+import com.example.viet.splitz.user.dtos.UserBalanceDto;
+import com.example.viet.splitz.user.dtos.UserDashboardSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserServiceImplTest {
+    @Mock UserRepository userRepository;
+    @Mock ActivityService activityService;
+    @Mock MembershipRepository membershipRepository;
+    @Mock UserPurger userPurger;
+    @Mock CurrentUser currentUser;
+    @Mock PlatformTransactionManager transactionManager;
+    UserServiceImpl userService;
+
+    @BeforeEach
+    void setUp() {
+        // branches run on the calling thread so the test stays deterministic
+        userService = new UserServiceImpl(userRepository, activityService, membershipRepository, userPurger, currentUser,
+                new ObjectMapper().findAndRegisterModules(), Runnable::run, transactionManager, Duration.ofSeconds(2));
+    }
+
+    @Test
+    void dashboardSnapshot_sameContent_keepsEtag_changedContent_changesIt(){
+        Group trip = new Group();
+        trip.setName("trip");
+        when(activityService.getFeed(1L, null, null)).thenReturn(new ActivityPageDto(List.of(), null));
+        when(membershipRepository.findGroupByUserId(1L)).thenReturn(List.of(trip));
+        when(membershipRepository.sumUserNetAcrossGroups(1L))
+                .thenReturn(Optional.of(new UserBalanceDto(1L, "alice", new BigDecimal("12.50"))))
+                .thenReturn(Optional.of(new UserBalanceDto(1L, "alice", new BigDecimal("12.50"))))
+                .thenReturn(Optional.of(new UserBalanceDto(1L, "alice", new BigDecimal("2.50"))));
+
+        UserDashboardSnapshot first = userService.getDashboardSnapshot(1L);
+        UserDashboardSnapshot rebuilt = userService.getDashboardSnapshot(1L);
+        UserDashboardSnapshot changed = userService.getDashboardSnapshot(1L);
+
+        assertEquals(List.of("trip"), first.dashboard().groups());
+        assertEquals(first.etag(), rebuilt.etag());
+        assertNotEquals(first.etag(), changed.etag());
+    }
+}
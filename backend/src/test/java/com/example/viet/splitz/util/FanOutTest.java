@@ -0,0 +1,72 @@
+package com.example.viet.splitz.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class FanOutTest {
+    private final ExecutorService pool = Executors.newFixedThreadPool(2);
+    private final FanOut fanOut = new FanOut(pool, mock(PlatformTransactionManager.class), Duration.ofMillis(200));
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void branchesRunConcurrently(){
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        CompletableFuture<Boolean> a = fanOut.fork(() -> meet(bothStarted));
+        CompletableFuture<Boolean> b = fanOut.fork(() -> meet(bothStarted));
+
+        assertTrue(FanOut.join(a));
+        assertTrue(FanOut.join(b));
+    }
+
+    @Test
+    void slowBranch_timesOut(){
+        CompletableFuture<String> slow = fanOut.fork(() -> {
+            sleep(2_000);
+            return "late";
+        });
+
+        assertThrows(IllegalStateException.class, () -> FanOut.join(slow));
+    }
+
+    @Test
+    void branchFailure_isRethrownUnwrapped(){
+        CompletableFuture<String> failing = fanOut.fork(() -> {
+            throw new IllegalArgumentException("boom");
+        });
+
+        assertEquals("boom", assertThrows(IllegalArgumentException.class, () -> FanOut.join(failing)).getMessage());
+    }
+
+    private static boolean meet(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            return latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}